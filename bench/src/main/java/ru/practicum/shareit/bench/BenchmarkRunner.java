@@ -0,0 +1,24 @@
+package ru.practicum.shareit.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Запуск замеров с профилировщиком gc: кроме пропускной способности в отчет попадает
+ * gc.alloc.rate.norm — байты, выделенные на один запрос. Аргументы командной строки — как у JMH,
+ * например -p items=10000 или SearchBenchmark.index; размер кучи форка задается через -jvmArgs, например -Xmx16g.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.bench;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Синтетический каталог вещей. Существительные берутся из словаря в 2000 слов: реальные названия вещей плюс
+ * сгенерированные из слогов, поэтому запрос совпадает с долей каталога, близкой к реальной.
+ */
+final class Catalog {
+
+    static final long OWNERS = 1000;
+
+    private static final String[] NOUNS = {"дрель", "перфоратор", "качели", "велосипед", "самокат", "палатка",
+            "лестница", "пылесос", "шуруповерт", "удочка", "гитара", "проектор", "коляска", "мангал", "рюкзак"};
+    private static final String[] ADJECTIVES = {"ударная", "детская", "складная", "походная", "электрическая",
+            "аккумуляторная", "садовая", "туристическая", "профессиональная", "компактная"};
+    private static final String[] SYLLABLES = {"ба", "ве", "го", "ду", "жи", "зо", "ки", "ла", "ме", "но", "пу",
+            "ро", "са", "ти", "фу", "ха", "це", "ша", "юр", "як"};
+    private static final int VOCABULARY = 2000;
+    private static final int BATCH_SIZE = 10_000;
+
+    private Catalog() {
+    }
+
+    /**
+     * Вставляет владельцев и count вещей пакетами в обход JPA: на десяти миллионах строк
+     * загрузка через репозиторий заняла бы больше времени, чем сами замеры.
+     */
+    static void insert(JdbcTemplate jdbcTemplate, int count) {
+        List<Object[]> owners = new ArrayList<>();
+        for (long id = 1; id <= OWNERS; id++) {
+            owners.add(new Object[]{id, "Владелец " + id, "owner" + id + "@shareit.ru"});
+        }
+        jdbcTemplate.batchUpdate("insert into users (id, name, email) values (?, ?, ?)", owners);
+
+        Random random = new Random(42);
+        String[] nouns = vocabulary(random);
+        List<Object[]> items = new ArrayList<>(BATCH_SIZE);
+        for (long id = 1; id <= count; id++) {
+            String noun = nouns[random.nextInt(nouns.length)];
+            String adjective = ADJECTIVES[random.nextInt(ADJECTIVES.length)];
+            items.add(new Object[]{id, noun + " " + adjective + " " + Long.toString(id, 36),
+                    adjective + " " + noun + " в хорошем состоянии", random.nextInt(10) > 0, id % OWNERS + 1});
+            if (items.size() == BATCH_SIZE || id == count) {
+                jdbcTemplate.batchUpdate("insert into items (id, name, description, is_available, owner_id) " +
+                        "values (?, ?, ?, ?, ?)", items);
+                items.clear();
+            }
+        }
+    }
+
+    private static String[] vocabulary(Random random) {
+        String[] nouns = Arrays.copyOf(NOUNS, VOCABULARY);
+        for (int i = NOUNS.length; i < VOCABULARY; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int j = 2 + random.nextInt(3); j > 0; j--) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            nouns[i] = word.toString();
+        }
+        return nouns;
+    }
+}
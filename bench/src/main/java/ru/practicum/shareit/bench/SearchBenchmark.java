@@ -0,0 +1,109 @@
+package ru.practicum.shareit.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность поиска вещей на встроенной H2: запрос LIKE через ItemRepository.search против
+ * нечеткого поиска в БД, индекса в памяти и кэша страниц. Полнотекстовый поиск и pg_trgm требуют PostgreSQL,
+ * поэтому здесь не замеряются.
+ * По умолчанию каталоги из 10 тысяч и миллиона вещей умещаются в кучу по умолчанию. Каталогу из 10 миллионов
+ * индекс в памяти требует кучу порядка 16 ГБ, поэтому он задается явно вместе с ее размером:
+ * -p items=10000000 -jvmArgs -Xmx16g.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({"10000", "1000000"})
+    private int items;
+
+    @Param({"дрель", "аккумуляторная дрель", "перфаратор"})
+    private String query;
+
+    private final Pageable page = PageRequest.of(0, 20);
+    private ConfigurableApplicationContext context;
+    private ItemRepository itemRepository;
+    private ItemSearchIndex itemSearchIndex;
+    private ItemService itemService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("shareit.search.engine=memory",
+                        "shareit.search.cache.ttl=1h",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=warn")
+                .run();
+        Catalog.insert(context.getBean(JdbcTemplate.class), items);
+        itemRepository = context.getBean(ItemRepository.class);
+        itemService = context.getBean(ItemService.class);
+        itemSearchIndex = context.getBean(ItemSearchIndex.class);
+        // Индекс строится при старте по пустой базе: после загрузки каталога он перечитывает ее
+        itemSearchIndex.build();
+        itemService.searchForItems(1L, query, null, null, page);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Slice<Item> repositoryLike() {
+        return itemRepository.search(query, null, null, page);
+    }
+
+    @Benchmark
+    public Slice<Item> repositoryFuzzy() {
+        return itemRepository.fuzzySearch(query, null, null, page);
+    }
+
+    @Benchmark
+    public List<Item> indexSearch() {
+        return itemSearchIndex.search(query, page);
+    }
+
+    @Benchmark
+    public List<Item> indexFuzzySearch() {
+        return itemSearchIndex.fuzzySearch(query, page);
+    }
+
+    @Benchmark
+    public List<ItemDto> cachedSearch() {
+        return itemService.searchForItems(1L, query, null, null, page);
+    }
+}
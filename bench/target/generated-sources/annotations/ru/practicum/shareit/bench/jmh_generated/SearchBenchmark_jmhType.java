@@ -0,0 +1,4 @@
+package ru.practicum.shareit.bench.jmh_generated;
+public class SearchBenchmark_jmhType extends SearchBenchmark_jmhType_B3 {
+}
+
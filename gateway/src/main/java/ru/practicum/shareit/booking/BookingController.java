@@ -7,11 +7,15 @@ import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -19,15 +23,18 @@ import javax.validation.constraints.PositiveOrZero;
 @Slf4j
 @Validated
 public class BookingController {
+    private static final int MAX_BATCH_SIZE = 500;
+
     private final BookingClient bookingClient;
 
     @GetMapping
     public ResponseEntity<Object> getBookings(@RequestHeader("X-Sharer-User-Id") long userId,
                                               @RequestParam(name = "state", defaultValue = "ALL") String state,
                                               @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        log.info("Get booking with state {}, userId={}, from={}, size={}", state, userId, from, size);
-        return bookingClient.getBookings(userId, state, from, size);
+                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                              @RequestParam(name = "cursor", required = false) String cursor) {
+        log.info("Get booking with state {}, userId={}, from={}, size={}, cursor={}", state, userId, from, size, cursor);
+        return bookingClient.getBookings(userId, state, from, size, cursor);
     }
 
     @PostMapping
@@ -37,6 +44,14 @@ public class BookingController {
         return bookingClient.bookItem(userId, requestDto);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<Object> bookItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                                            @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE)
+                                            List<@Valid BookItemRequestDto> requestDtos) {
+        log.info("Creating {} bookings, userId={}", requestDtos.size(), userId);
+        return bookingClient.bookItems(userId, requestDtos);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<Object> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
                                              @PathVariable(name = "bookingId") long bookingId) {
@@ -52,11 +67,20 @@ public class BookingController {
         return bookingClient.changeStatus(userId, bookingId, approved);
     }
 
+    @PatchMapping("/batch")
+    ResponseEntity<Object> changeStatuses(@RequestHeader("X-Sharer-User-Id") long userId,
+                                          @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE)
+                                          List<@Valid BookingStatusChangeDto> changes) {
+        log.info("Change status of {} bookings, userId={}", changes.size(), userId);
+        return bookingClient.changeStatuses(userId, changes);
+    }
+
     @GetMapping("/owner")
     ResponseEntity<Object> getAllBookingsByOwner(@RequestHeader("X-Sharer-User-Id") long ownerId,
                                                  @RequestParam(required = false, defaultValue = "ALL") String state,
                                                  @PositiveOrZero @RequestParam(value = "from", defaultValue = "0") @Min(0) Long from,
-                                                 @Positive @RequestParam(value = "size", defaultValue = "10") @Min(1) Long size) {
-        return bookingClient.getAllBookingsByOwner(ownerId, state, from, size);
+                                                 @Positive @RequestParam(value = "size", defaultValue = "10") @Min(1) Long size,
+                                                 @RequestParam(value = "cursor", required = false) String cursor) {
+        return bookingClient.getAllBookingsByOwner(ownerId, state, from, size, cursor);
     }
 }
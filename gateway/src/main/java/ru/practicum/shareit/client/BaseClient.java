@@ -4,15 +4,31 @@ import org.springframework.http.*;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 public class BaseClient {
     protected final RestTemplate rest;
+    private final String route;
+    private final ResponseCache responseCache;
 
     public BaseClient(RestTemplate rest) {
+        this(rest, null, null);
+    }
+
+    /**
+     * @param route имя маршрута для настроек кэша ответов, например items
+     */
+    public BaseClient(RestTemplate rest, String route, ResponseCache responseCache) {
         this.rest = rest;
+        this.route = route;
+        this.responseCache = responseCache;
     }
 
     protected ResponseEntity<Object> get(String path) {
@@ -76,19 +92,85 @@ public class BaseClient {
     }
 
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+        boolean cached = responseCache != null && responseCache.isEnabled(route);
+        if (method == HttpMethod.GET && cached) {
+            return cachedGet(path, userId, parameters);
+        }
+        HttpHeaders headers = defaultHeaders(userId);
+        if (method == HttpMethod.GET) {
+            forwardIfNoneMatch(headers);
+        }
+        ResponseEntity<Object> shareitServerResponse = exchange(method, path, parameters, new HttpEntity<>(body, headers));
+        if (method != HttpMethod.GET && responseCache != null && shareitServerResponse.getStatusCode().is2xxSuccessful()) {
+            responseCache.clear();
+        }
+        return prepareGatewayResponse(shareitServerResponse);
+    }
+
+    /**
+     * GET через кэш ответов: свежий ответ отдается без обращения к серверу, истекший ответ с ETag
+     * перепроверяется условным запросом. Cache-Control: no-cache клиента заставляет запросить сервер,
+     * no-store — еще и не сохранять ответ.
+     */
+    private ResponseEntity<Object> cachedGet(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        String uri = (parameters != null
+                ? rest.getUriTemplateHandler().expand(path, parameters)
+                : rest.getUriTemplateHandler().expand(path)).toString();
+        String key = ResponseCache.key(uri, userId);
+        ResponseCache.CacheControlDirectives requested = ResponseCache.CacheControlDirectives.of(
+                incomingHeader(HttpHeaders.CACHE_CONTROL));
+        boolean bypass = requested.isNoCache() || requested.isNoStore();
+        long generation = responseCache.generation();
+        Optional<ResponseCache.Entry> entry = bypass ? Optional.empty() : responseCache.get(key);
+        if (entry.isPresent() && responseCache.isFresh(entry.get())) {
+            return fromCache(entry.get());
+        }
+
+        HttpHeaders headers = defaultHeaders(userId);
+        forwardIfNoneMatch(headers);
+        boolean revalidating = entry.isPresent() && entry.get().getETag() != null && headers.getIfNoneMatch().isEmpty();
+        if (revalidating) {
+            headers.setIfNoneMatch(entry.get().getETag());
+        }
+        ResponseEntity<Object> shareitServerResponse = exchange(HttpMethod.GET, path, parameters, new HttpEntity<>(headers));
+        if (revalidating && shareitServerResponse.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            responseCache.revalidated(key, entry.get(), generation);
+            return fromCache(entry.get());
+        }
+        if (shareitServerResponse.getStatusCode() == HttpStatus.OK && !requested.isNoStore()) {
+            responseCache.put(route, key, shareitServerResponse, generation);
+        }
+        return prepareGatewayResponse(shareitServerResponse);
+    }
+
+    /**
+     * Ответ из кэша; если у клиента уже есть эта версия (If-None-Match), то пустой 304.
+     */
+    private static ResponseEntity<Object> fromCache(ResponseCache.Entry entry) {
+        String ifNoneMatch = incomingHeader(HttpHeaders.IF_NONE_MATCH);
+        if (entry.getETag() != null && ifNoneMatch != null && Arrays.stream(ifNoneMatch.split(","))
+                .map(tag -> weak(tag.strip()))
+                .anyMatch(tag -> tag.equals("*") || tag.equals(weak(entry.getETag())))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(entry.getETag()).build();
+        }
+        return entry.getResponse();
+    }
 
-        ResponseEntity<Object> shareitServerResponse;
+    private static String weak(String eTag) {
+        return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+    }
+
+    private <T> ResponseEntity<Object> exchange(HttpMethod method, String path, @Nullable Map<String, Object> parameters,
+                                                HttpEntity<T> requestEntity) {
         try {
             if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
+                return rest.exchange(path, method, requestEntity, Object.class, parameters);
             } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+                return rest.exchange(path, method, requestEntity, Object.class);
             }
         } catch (HttpStatusCodeException e) {
             return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
         }
-        return prepareGatewayResponse(shareitServerResponse);
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -101,10 +183,35 @@ public class BaseClient {
         return headers;
     }
 
+    /**
+     * Клиент, у которого есть ответ с ETag, присылает его в If-None-Match: сервер сверит ревизию
+     * и ответит пустым 304, если ресурс не изменился.
+     */
+    private static void forwardIfNoneMatch(HttpHeaders headers) {
+        String ifNoneMatch = incomingHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+    }
+
+    @Nullable
+    private static String incomingHeader(String name) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes) {
+            return ((ServletRequestAttributes) attributes).getRequest().getHeader(name);
+        }
+        return null;
+    }
+
     private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
         if (response.getStatusCode().is2xxSuccessful()) {
             return response;
         }
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(response.getHeaders().getETag())
+                    .build();
+        }
 
         ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
 
@@ -0,0 +1,243 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Кэш ответов сервера на GET-запросы: ключ — путь с параметрами и пользователь из X-Sharer-User-Id.
+ * Время жизни задается для каждого маршрута (users, items, bookings, requests); 0 отключает кэш маршрута.
+ * Вытесняются давно не запрошенные ответы (LRU). Ответ хранится со всеми заголовками сервера, кроме
+ * hop-by-hop и Content-Length. Ответ с Cache-Control: no-store или no-cache не кэшируется,
+ * max-age сокращает время жизни. Истекший ответ с ETag не удаляется, а перепроверяется на сервере
+ * через If-None-Match. Любое успешное изменение через шлюз сбрасывает весь кэш: изменения одного ресурса видны
+ * в ответах других (подтверждение бронирования меняет карточку вещи, новое имя пользователя — бронирования).
+ */
+@Component
+public class ResponseCache {
+
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+    // Заголовки соединения между сервером и шлюзом (RFC 7230, 6.1) и длина тела, которое шлюз сериализует заново
+    private static final List<String> NOT_STORED_HEADERS = List.of(HttpHeaders.CONNECTION, "Keep-Alive",
+            HttpHeaders.PROXY_AUTHENTICATE, HttpHeaders.PROXY_AUTHORIZATION, HttpHeaders.TE, HttpHeaders.TRAILER,
+            HttpHeaders.TRANSFER_ENCODING, HttpHeaders.UPGRADE, HttpHeaders.CONTENT_LENGTH);
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final Map<String, Duration> ttls;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+    private long generation;
+
+    @Autowired
+    public ResponseCache(@Value("${shareit-gateway.cache.enabled:false}") boolean enabled,
+                         @Value("${shareit-gateway.cache.max-entries:10000}") int maxEntries,
+                         Environment environment,
+                         MeterRegistry meterRegistry) {
+        this(enabled, maxEntries, Binder.get(environment)
+                .bind("shareit-gateway.cache.ttl", Bindable.mapOf(String.class, Duration.class))
+                .orElse(Map.of()), System::nanoTime);
+        registerMetrics(meterRegistry);
+    }
+
+    /**
+     * @param ttls время жизни ответов по маршрутам; маршрут без настройки не кэшируется
+     */
+    ResponseCache(boolean enabled, int maxEntries, Map<String, Duration> ttls, LongSupplier clock) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.ttls = Map.copyOf(ttls);
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > ResponseCache.this.maxEntries;
+            }
+        };
+    }
+
+    void registerMetrics(MeterRegistry meterRegistry) {
+        FunctionCounter.builder("shareit.gateway.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("shareit.gateway.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("shareit.gateway.cache.requests", revalidations, LongAdder::sum)
+                .tag("result", "revalidated")
+                .register(meterRegistry);
+        Gauge.builder("shareit.gateway.cache.size", this, ResponseCache::size)
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled(String route) {
+        return enabled && !ttl(route).isZero();
+    }
+
+    public static String key(String uri, Long userId) {
+        return "GET " + uri + " " + userId;
+    }
+
+    /**
+     * Ответ из кэша, если он есть. Истекший ответ возвращается тоже: вызывающий перепроверяет его по ETag
+     * или запрашивает заново, поэтому он считается промахом.
+     */
+    public synchronized Optional<Entry> get(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && isFresh(entry)) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return Optional.ofNullable(entry);
+    }
+
+    public synchronized boolean isFresh(Entry entry) {
+        return clock.getAsLong() < entry.expiresAt;
+    }
+
+    /**
+     * Поколение кэша до запроса к серверу: ответ, полученный до сброса, не должен попасть
+     * в кэш после него, поэтому {@link #put} и {@link #revalidated} с устаревшим поколением ничего не делают.
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Сохраняет успешный ответ, если Cache-Control сервера это допускает.
+     */
+    public synchronized void put(String route, String key, ResponseEntity<Object> response, long generation) {
+        if (generation != this.generation) {
+            return;
+        }
+        Duration ttl = ttl(route);
+        CacheControlDirectives directives = CacheControlDirectives.of(response.getHeaders().getCacheControl());
+        if (directives.noStore || directives.noCache) {
+            return;
+        }
+        if (directives.maxAge != null && directives.maxAge.compareTo(ttl) < 0) {
+            ttl = directives.maxAge;
+        }
+        if (ttl.isZero()) {
+            return;
+        }
+        entries.put(key, new Entry(ResponseEntity.status(response.getStatusCode()).headers(storedHeaders(response))
+                .body(response.getBody()), clock.getAsLong() + ttl.toNanos(), ttl));
+    }
+
+    /**
+     * Сервер подтвердил, что ответ не изменился (304): время жизни отсчитывается заново.
+     */
+    public synchronized void revalidated(String key, Entry entry, long generation) {
+        revalidations.increment();
+        if (generation != this.generation) {
+            return;
+        }
+        entries.put(key, new Entry(entry.response, clock.getAsLong() + entry.ttl.toNanos(), entry.ttl));
+    }
+
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private Duration ttl(String route) {
+        return ttls.getOrDefault(route, Duration.ZERO);
+    }
+
+    private static HttpHeaders storedHeaders(ResponseEntity<Object> response) {
+        Set<String> excluded = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        excluded.addAll(NOT_STORED_HEADERS);
+        // Заголовки, перечисленные в Connection, тоже относятся только к соединению
+        response.getHeaders().getConnection().forEach(excluded::add);
+        HttpHeaders headers = new HttpHeaders();
+        response.getHeaders().forEach((name, values) -> {
+            if (!excluded.contains(name)) {
+                headers.addAll(name, values);
+            }
+        });
+        return headers;
+    }
+
+    @Getter
+    public static class Entry {
+        private final ResponseEntity<Object> response;
+        private final long expiresAt;
+        private final Duration ttl;
+
+        Entry(ResponseEntity<Object> response, long expiresAt, Duration ttl) {
+            this.response = response;
+            this.expiresAt = expiresAt;
+            this.ttl = ttl;
+        }
+
+        public String getETag() {
+            return response.getHeaders().getETag();
+        }
+    }
+
+    /**
+     * Директивы Cache-Control запроса или ответа, которые учитывает кэш.
+     */
+    static class CacheControlDirectives {
+        private final boolean noStore;
+        private final boolean noCache;
+        private final Duration maxAge;
+
+        private CacheControlDirectives(boolean noStore, boolean noCache, Duration maxAge) {
+            this.noStore = noStore;
+            this.noCache = noCache;
+            this.maxAge = maxAge;
+        }
+
+        static CacheControlDirectives of(String cacheControl) {
+            if (cacheControl == null) {
+                return new CacheControlDirectives(false, false, null);
+            }
+            String value = cacheControl.toLowerCase(Locale.ROOT);
+            Matcher maxAge = MAX_AGE.matcher(value);
+            return new CacheControlDirectives(value.contains(CacheControl.noStore().getHeaderValue()),
+                    value.contains(CacheControl.noCache().getHeaderValue()),
+                    maxAge.find() ? Duration.ofSeconds(Long.parseLong(maxAge.group(1))) : null);
+        }
+
+        boolean isNoStore() {
+            return noStore;
+        }
+
+        boolean isNoCache() {
+            return noCache;
+        }
+    }
+}
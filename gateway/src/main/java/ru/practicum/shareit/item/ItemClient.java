@@ -8,9 +8,12 @@ import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -19,12 +22,15 @@ public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      ResponseCache responseCache) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
                         .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .build(),
+                API_PREFIX.substring(1),
+                responseCache
         );
     }
 
@@ -47,12 +53,30 @@ public class ItemClient extends BaseClient {
         return get("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> searchForItems(long userId, String text, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public ResponseEntity<Object> searchForItems(long userId, String text, Integer from, Integer size, boolean fuzzy,
+                                                 LocalDateTime start, LocalDateTime end) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "text", text,
                 "from", from,
+                "size", size,
+                "fuzzy", fuzzy));
+        String path = "/search?text={text}&from={from}&size={size}&fuzzy={fuzzy}";
+        if (start != null) {
+            parameters.put("start", start);
+            path += "&start={start}";
+        }
+        if (end != null) {
+            parameters.put("end", end);
+            path += "&end={end}";
+        }
+        return get(path, userId, parameters);
+    }
+
+    public ResponseEntity<Object> suggest(long userId, String prefix, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "prefix", prefix,
                 "size", size);
-        return get("/search?text={text}&from={from}&size={size}", userId, parameters);
+        return get("/suggest?prefix={prefix}&size={size}", userId, parameters);
     }
 
     public ResponseEntity<Object> addComment(long userId, long itemId, CommentDto commentDto) {
@@ -2,6 +2,7 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
@@ -10,7 +11,11 @@ import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Future;
+import javax.validation.constraints.FutureOrPresent;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import java.time.LocalDateTime;
 
 @Controller
 @RequestMapping(path = "/items")
@@ -19,6 +24,9 @@ import javax.validation.constraints.Min;
 @Validated
 public class ItemController {
 
+    private static final int MAX_SEARCH_SIZE = 100;
+    private static final int MAX_SUGGEST_SIZE = 10;
+
     private final ItemClient itemClient;
 
     @PostMapping
@@ -51,8 +59,22 @@ public class ItemController {
     public ResponseEntity<Object> searchForItems(@RequestHeader("X-Sharer-User-Id") long userId,
                                                  @RequestParam String text,
                                                  @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
-                                                 @RequestParam(value = "size", defaultValue = "10") @Min(1) Integer size) {
-        return itemClient.searchForItems(userId, text, from, size);
+                                                 @RequestParam(value = "size", defaultValue = "10")
+                                                 @Min(1) @Max(MAX_SEARCH_SIZE) Integer size,
+                                                 @RequestParam(value = "fuzzy", defaultValue = "false") boolean fuzzy,
+                                                 @RequestParam(value = "start", required = false) @FutureOrPresent
+                                                 @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                                 @RequestParam(value = "end", required = false) @Future
+                                                 @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        return itemClient.searchForItems(userId, text, from, size, fuzzy, start, end);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> suggest(@RequestHeader("X-Sharer-User-Id") long userId,
+                                          @RequestParam String prefix,
+                                          @RequestParam(value = "size", defaultValue = "10")
+                                          @Min(1) @Max(MAX_SUGGEST_SIZE) Integer size) {
+        return itemClient.suggest(userId, prefix, size);
     }
 
     @PostMapping("/{itemId}/comment")
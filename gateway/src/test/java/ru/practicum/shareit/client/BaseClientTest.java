@@ -0,0 +1,178 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.OngoingStubbing;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BaseClientTest {
+
+    private static final ResponseEntity<Object> ITEM = ResponseEntity.ok()
+            .eTag("\"1\"")
+            .header("X-Next-Cursor", "abc")
+            .body(Map.of("id", 1));
+
+    @Mock
+    private RestTemplate rest;
+
+    private long now;
+    private MockHttpServletRequest request;
+    private BaseClient client;
+
+    @BeforeEach
+    void setUp() {
+        when(rest.getUriTemplateHandler()).thenReturn(new DefaultUriBuilderFactory());
+        ResponseCache responseCache = new ResponseCache(true, 100, Map.of("items", Duration.ofSeconds(10)),
+                () -> now);
+        client = new BaseClient(rest, "items", responseCache);
+        request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void get_whenCachedResponseFresh_thenServedWithHeadersWithoutServer() {
+        whenGetItem().thenReturn(ITEM);
+
+        client.get("/1", 1L);
+        ResponseEntity<Object> cached = client.get("/1", 1L);
+
+        assertEquals(HttpStatus.OK, cached.getStatusCode());
+        assertEquals(Map.of("id", 1), cached.getBody());
+        assertEquals("abc", cached.getHeaders().getFirst("X-Next-Cursor"));
+        assertEquals("\"1\"", cached.getHeaders().getETag());
+        verify(rest, times(1)).exchange(eq("/1"), eq(HttpMethod.GET), any(HttpEntity.class), eq(Object.class));
+    }
+
+    @Test
+    void get_whenOtherUser_thenRequestedSeparately() {
+        whenGetItem().thenReturn(ITEM);
+
+        client.get("/1", 1L);
+        client.get("/1", 2L);
+
+        verify(rest, times(2)).exchange(eq("/1"), eq(HttpMethod.GET), any(HttpEntity.class), eq(Object.class));
+    }
+
+    @Test
+    void get_whenCachedResponseExpired_thenRevalidatedWithStoredETag() {
+        whenGetItem().thenReturn(ITEM)
+                .thenReturn(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag("\"1\"").build());
+        client.get("/1", 1L);
+        now += Duration.ofSeconds(10).toNanos();
+
+        ResponseEntity<Object> revalidated = client.get("/1", 1L);
+        client.get("/1", 1L);
+
+        assertEquals(HttpStatus.OK, revalidated.getStatusCode());
+        assertEquals(Map.of("id", 1), revalidated.getBody());
+        ArgumentCaptor<HttpEntity<?>> requests = requests(2);
+        assertEquals(List.of(), requests.getAllValues().get(0).getHeaders().getIfNoneMatch());
+        assertEquals(List.of("\"1\""), requests.getAllValues().get(1).getHeaders().getIfNoneMatch());
+    }
+
+    @Test
+    void get_whenClientSendsNoCache_thenServerRequestedAgain() {
+        whenGetItem().thenReturn(ITEM);
+        client.get("/1", 1L);
+        request.addHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+
+        client.get("/1", 1L);
+
+        requests(2);
+    }
+
+    @Test
+    void get_whenServerSendsNoStore_thenResponseNotCached() {
+        whenGetItem().thenReturn(ResponseEntity.ok().header(HttpHeaders.CACHE_CONTROL, "no-store").body("item"));
+
+        client.get("/1", 1L);
+        client.get("/1", 1L);
+
+        requests(2);
+    }
+
+    @Test
+    void get_whenClientHasCachedVersion_thenNotModifiedWithETag() {
+        whenGetItem().thenReturn(ITEM);
+        client.get("/1", 1L);
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "W/\"1\"");
+
+        ResponseEntity<Object> response = client.get("/1", 1L);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"1\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+        requests(1);
+    }
+
+    @Test
+    void patch_whenSuccessful_thenCacheCleared() {
+        whenGetItem().thenReturn(ITEM);
+        when(rest.exchange(eq("/1"), eq(HttpMethod.PATCH), any(HttpEntity.class), eq(Object.class)))
+                .thenReturn(ResponseEntity.ok().body(Map.of("id", 1)));
+        client.get("/1", 1L);
+
+        client.patch("/1", 1L, Map.of("name", "Дрель"));
+        client.get("/1", 1L);
+
+        requests(2);
+    }
+
+    @Test
+    void get_whenWriteCompletesDuringUpstreamCall_thenPreWriteResponseNotCached() {
+        when(rest.exchange(eq("/1"), eq(HttpMethod.PATCH), any(HttpEntity.class), eq(Object.class)))
+                .thenReturn(ResponseEntity.ok().body(Map.of("id", 1)));
+        whenGetItem().thenAnswer(invocation -> {
+            client.patch("/1", 1L, Map.of("name", "Дрель"));
+            return ITEM;
+        }).thenReturn(ITEM);
+
+        client.get("/1", 1L);
+        client.get("/1", 1L);
+
+        requests(2);
+    }
+
+    private OngoingStubbing<ResponseEntity<Object>> whenGetItem() {
+        return when(rest.exchange(eq("/1"), eq(HttpMethod.GET), any(HttpEntity.class), eq(Object.class)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private ArgumentCaptor<HttpEntity<?>> requests(int count) {
+        ArgumentCaptor<HttpEntity<?>> captor = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(rest, times(count)).exchange(eq("/1"), eq(HttpMethod.GET), captor.capture(), eq(Object.class));
+        return captor;
+    }
+}
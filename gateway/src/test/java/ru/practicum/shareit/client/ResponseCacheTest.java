@@ -0,0 +1,153 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseCacheTest {
+
+    private static final String KEY = ResponseCache.key("/items/1", 1L);
+
+    private long now;
+    private MeterRegistry meterRegistry;
+    private ResponseCache responseCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        responseCache = new ResponseCache(true, 2, Map.of("items", Duration.ofSeconds(10)), () -> now);
+        responseCache.registerMetrics(meterRegistry);
+    }
+
+    @Test
+    void isEnabled_whenTtlConfiguredForRoute_thenRouteCached() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("shareit-gateway.cache.ttl.items", "10s")
+                .withProperty("shareit-gateway.cache.ttl.bookings", "0");
+        ResponseCache configured = new ResponseCache(true, 10, environment, new SimpleMeterRegistry());
+
+        assertTrue(configured.isEnabled("items"));
+        assertFalse(configured.isEnabled("bookings"));
+        assertFalse(configured.isEnabled("users"));
+        assertFalse(new ResponseCache(false, 10, environment, new SimpleMeterRegistry()).isEnabled("items"));
+    }
+
+    @Test
+    void get_whenTtlElapsed_thenStaleEntryReturnedAndCountedAsMiss() {
+        put(KEY, ResponseEntity.ok().eTag("\"1\"").body("item"));
+
+        assertTrue(responseCache.isFresh(responseCache.get(KEY).orElseThrow()));
+
+        now += Duration.ofSeconds(10).toNanos();
+        Optional<ResponseCache.Entry> stale = responseCache.get(KEY);
+
+        assertTrue(stale.isPresent());
+        assertFalse(responseCache.isFresh(stale.get()));
+        assertEquals(1.0, requests("hit"));
+        assertEquals(1.0, requests("miss"));
+    }
+
+    @Test
+    void put_whenResponseHasHeaders_thenAllButHopByHopStored() {
+        put(KEY, ResponseEntity.ok()
+                .eTag("\"1\"")
+                .header("X-Next-Cursor", "abc")
+                .header(HttpHeaders.TRANSFER_ENCODING, "chunked")
+                .header(HttpHeaders.CONNECTION, "keep-alive, X-Trace")
+                .header("X-Trace", "1")
+                .header(HttpHeaders.CONTENT_LENGTH, "4")
+                .body("item"));
+
+        HttpHeaders headers = responseCache.get(KEY).orElseThrow().getResponse().getHeaders();
+
+        assertEquals("\"1\"", headers.getETag());
+        assertEquals("abc", headers.getFirst("X-Next-Cursor"));
+        assertNull(headers.getFirst(HttpHeaders.TRANSFER_ENCODING));
+        assertNull(headers.getFirst(HttpHeaders.CONNECTION));
+        assertNull(headers.getFirst("X-Trace"));
+        assertNull(headers.getFirst(HttpHeaders.CONTENT_LENGTH));
+    }
+
+    @Test
+    void put_whenCacheControlGiven_thenNoStoreSkippedAndMaxAgeShortensTtl() {
+        put(KEY, ResponseEntity.ok().header(HttpHeaders.CACHE_CONTROL, "no-store").body("item"));
+
+        assertTrue(responseCache.get(KEY).isEmpty());
+
+        put(KEY, ResponseEntity.ok().header(HttpHeaders.CACHE_CONTROL, "max-age=5").body("item"));
+        now += Duration.ofSeconds(5).toNanos();
+
+        assertFalse(responseCache.isFresh(responseCache.get(KEY).orElseThrow()));
+    }
+
+    @Test
+    void revalidated_whenNotModified_thenTtlRestarted() {
+        put(KEY, ResponseEntity.ok().eTag("\"1\"").body("item"));
+        now += Duration.ofSeconds(10).toNanos();
+
+        responseCache.revalidated(KEY, responseCache.get(KEY).orElseThrow(), responseCache.generation());
+        now += Duration.ofSeconds(9).toNanos();
+
+        assertTrue(responseCache.isFresh(responseCache.get(KEY).orElseThrow()));
+        assertEquals(1.0, requests("revalidated"));
+    }
+
+    @Test
+    void put_whenMoreEntriesThanMax_thenLeastRecentlyUsedEvicted() {
+        String second = ResponseCache.key("/items/2", 1L);
+        String third = ResponseCache.key("/items/3", 1L);
+        put(KEY, ResponseEntity.ok().body("1"));
+        put(second, ResponseEntity.ok().body("2"));
+        responseCache.get(KEY);
+
+        put(third, ResponseEntity.ok().body("3"));
+
+        assertTrue(responseCache.get(KEY).isPresent());
+        assertTrue(responseCache.get(second).isEmpty());
+        assertEquals(2, responseCache.size());
+    }
+
+    @Test
+    void put_whenClearedAfterGenerationRead_thenResponseNotStored() {
+        long generation = responseCache.generation();
+
+        responseCache.clear();
+        responseCache.put("items", KEY, ResponseEntity.ok().body("item"), generation);
+
+        assertTrue(responseCache.get(KEY).isEmpty());
+    }
+
+    @Test
+    void revalidated_whenClearedDuringRevalidation_thenEntryNotRestored() {
+        put(KEY, ResponseEntity.ok().eTag("\"1\"").body("item"));
+        now += Duration.ofSeconds(10).toNanos();
+        long generation = responseCache.generation();
+        ResponseCache.Entry stale = responseCache.get(KEY).orElseThrow();
+
+        responseCache.clear();
+        responseCache.revalidated(KEY, stale, generation);
+
+        assertTrue(responseCache.get(KEY).isEmpty());
+    }
+
+    private void put(String key, ResponseEntity<Object> response) {
+        responseCache.put("items", key, response, responseCache.generation());
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("shareit.gateway.cache.requests").tag("result", result).functionCounter().count();
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Условный GET по слабому ETag из ревизии ресурса. Ревизия читается легким запросом версий,
+ * и при совпадении с If-None-Match клиент получает пустой 304 без сборки ответа.
+ */
+public class ETagUtil {
+
+    public static <T> ResponseEntity<T> conditionalGet(WebRequest request, Optional<String> revision,
+                                                       Supplier<T> body) {
+        if (revision.isEmpty()) {
+            return ResponseEntity.ok(body.get());
+        }
+        String eTag = "W/\"" + revision.get() + "\"";
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(body.get());
+    }
+}
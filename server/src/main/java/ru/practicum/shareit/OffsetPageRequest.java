@@ -0,0 +1,68 @@
+package ru.practicum.shareit;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.Objects;
+
+public class OffsetPageRequest extends PageRequest {
+
+    private final long offset;
+
+    public OffsetPageRequest(long offset, int size, Sort sort) {
+        super(Math.toIntExact(offset / size), size, sort);
+        this.offset = offset;
+    }
+
+    @Override
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public boolean hasPrevious() {
+        return offset > 0;
+    }
+
+    @Override
+    public PageRequest next() {
+        return new OffsetPageRequest(offset + getPageSize(), getPageSize(), getSort());
+    }
+
+    @Override
+    public PageRequest previous() {
+        return hasPrevious() ? new OffsetPageRequest(Math.max(0, offset - getPageSize()), getPageSize(), getSort()) : this;
+    }
+
+    @Override
+    public PageRequest first() {
+        return new OffsetPageRequest(0, getPageSize(), getSort());
+    }
+
+    @Override
+    public PageRequest withPage(int pageNumber) {
+        return new OffsetPageRequest((long) pageNumber * getPageSize(), getPageSize(), getSort());
+    }
+
+    @Override
+    public PageRequest withSort(Sort sort) {
+        return new OffsetPageRequest(offset, getPageSize(), sort);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof OffsetPageRequest)) {
+            return false;
+        }
+        OffsetPageRequest that = (OffsetPageRequest) obj;
+        return offset == that.offset && super.equals(that);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), offset);
+    }
+}
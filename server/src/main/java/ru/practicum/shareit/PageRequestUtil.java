@@ -1,6 +1,7 @@
 package ru.practicum.shareit;
 
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.exceptions.BadRequestException;
 
 public class PageRequestUtil {
@@ -11,11 +12,10 @@ public class PageRequestUtil {
             if (from < 0 || size < 0) {
                 throw new BadRequestException("Индекс первого элемента и количество элементов не могут быть отрицательными");
             }
-            if (from == 0 && size == 0) {
+            if (size == 0) {
                 throw new BadRequestException("Нечего возвращать");
             }
-            int pageNumber = from / size;
-            pageRequest = PageRequest.of(pageNumber, Math.toIntExact(size));
+            pageRequest = new OffsetPageRequest(from, size, Sort.unsorted());
         }
         return pageRequest;
     }
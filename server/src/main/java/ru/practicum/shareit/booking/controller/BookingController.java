@@ -2,10 +2,17 @@ package ru.practicum.shareit.booking.controller;
 
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.ETagUtil;
 import ru.practicum.shareit.PageRequestUtil;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeResultDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exceptions.BadRequestException;
 
 import java.util.List;
 
@@ -22,6 +29,12 @@ public class BookingController {
         return bookingService.addBooking(userId, bookingDto);
     }
 
+    @PostMapping("/batch")
+    List<BookingDto> addBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                                 @RequestBody List<BookingDto> bookingDtos) {
+        return bookingService.addBookings(userId, bookingDtos);
+    }
+
     @PatchMapping("/{bookingId}")
     BookingDto changeStatus(@RequestHeader("X-Sharer-User-Id") long userId,
                             @PathVariable("bookingId") long bookingId,
@@ -29,28 +42,65 @@ public class BookingController {
         return bookingService.changeStatus(userId, bookingId, approved);
     }
 
+    @PatchMapping("/batch")
+    List<BookingStatusChangeResultDto> changeStatuses(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                      @RequestBody List<BookingStatusChangeDto> changes) {
+        return bookingService.changeStatuses(userId, changes);
+    }
+
     @GetMapping("/{bookingId}")
-    BookingDto getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
-                          @PathVariable long bookingId) {
-        return bookingService.getBooking(userId, bookingId);
+    ResponseEntity<BookingDto> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+                                          @PathVariable long bookingId,
+                                          WebRequest request) {
+        return ETagUtil.conditionalGet(request, bookingService.getBookingRevision(userId, bookingId),
+                () -> bookingService.getBooking(userId, bookingId));
     }
 
     @GetMapping
-    List<BookingDto> getAllBookingsByBooker(@RequestHeader("X-Sharer-User-Id") long userId,
-                                            @RequestParam(required = false) String state,
-                                            @RequestParam(required = false) Integer from,
-                                            @RequestParam(required = false) Integer size) {
-        Pageable pageable = PageRequestUtil.createPageRequest(from, size);
-        return bookingService.getAllBookingsByBooker(userId, state, pageable);
+    ResponseEntity<List<BookingDto>> getAllBookingsByBooker(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                            @RequestParam(required = false) String state,
+                                                            @RequestParam(required = false) Integer from,
+                                                            @RequestParam(required = false) Integer size,
+                                                            @RequestParam(required = false) String cursor) {
+        List<BookingDto> bookings;
+        if (cursor != null) {
+            bookings = bookingService.getAllBookingsByBooker(userId, state, decodeCursor(cursor, size), size);
+        } else {
+            Pageable pageable = PageRequestUtil.createPageRequest(from, size);
+            bookings = bookingService.getAllBookingsByBooker(userId, state, pageable);
+        }
+        return withNextCursor(bookings, size);
     }
 
     @GetMapping("/owner")
-    List<BookingDto> getAllBookingsByOwner(@RequestHeader("X-Sharer-User-Id") long ownerId,
-                                           @RequestParam(required = false) String state,
-                                           @RequestParam(required = false) Integer from,
-                                           @RequestParam(required = false) Integer size) {
-        Pageable pageable = PageRequestUtil.createPageRequest(from, size);
-        return bookingService.getAllBookingsByOwner(ownerId, state, pageable);
+    ResponseEntity<List<BookingDto>> getAllBookingsByOwner(@RequestHeader("X-Sharer-User-Id") long ownerId,
+                                                           @RequestParam(required = false) String state,
+                                                           @RequestParam(required = false) Integer from,
+                                                           @RequestParam(required = false) Integer size,
+                                                           @RequestParam(required = false) String cursor) {
+        List<BookingDto> bookings;
+        if (cursor != null) {
+            bookings = bookingService.getAllBookingsByOwner(ownerId, state, decodeCursor(cursor, size), size);
+        } else {
+            Pageable pageable = PageRequestUtil.createPageRequest(from, size);
+            bookings = bookingService.getAllBookingsByOwner(ownerId, state, pageable);
+        }
+        return withNextCursor(bookings, size);
+    }
+
+    private BookingCursor decodeCursor(String cursor, Integer size) {
+        if (size == null || size <= 0) {
+            throw new BadRequestException("Для постраничного вывода по курсору должен быть указан размер страницы");
+        }
+        return cursor.isBlank() ? null : BookingCursor.decode(cursor);
+    }
+
+    private ResponseEntity<List<BookingDto>> withNextCursor(List<BookingDto> bookings, Integer size) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (size != null && size > 0 && bookings.size() == size) {
+            response.header(BookingCursor.HEADER, BookingCursor.of(bookings.get(bookings.size() - 1)).encode());
+        }
+        return response.body(bookings);
     }
 
 }
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingStatusChangeResultDto {
+
+    private Long bookingId;
+    private BookingStatus status;
+    private String error;
+
+    public static BookingStatusChangeResultDto applied(Long bookingId, BookingStatus status) {
+        return new BookingStatusChangeResultDto(bookingId, status, null);
+    }
+
+    public static BookingStatusChangeResultDto failed(Long bookingId, String error) {
+        return new BookingStatusChangeResultDto(bookingId, null, error);
+    }
+
+    public boolean isApplied() {
+        return error == null;
+    }
+}
@@ -3,10 +3,13 @@ package ru.practicum.shareit.booking.mapper;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.enums.BookingStatus;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserDto;
 
 public class BookingMapper {
 
@@ -22,6 +25,28 @@ public class BookingMapper {
         return bookingDto;
     }
 
+    public static BookingDto mapToBookingDto(BookingView view) {
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setId(view.getId());
+        bookingDto.setStart(view.getStart());
+        bookingDto.setEnd(view.getEnd());
+        bookingDto.setItem(ItemDto.builder()
+                .id(view.getItemId())
+                .name(view.getItemName())
+                .description(view.getItemDescription())
+                .available(view.getItemAvailable())
+                .requestId(view.getItemRequestId())
+                .build());
+        bookingDto.setBooker(UserDto.builder()
+                .id(view.getBookerId())
+                .name(view.getBookerName())
+                .email(view.getBookerEmail())
+                .build());
+        bookingDto.setBookerId(view.getBookerId());
+        bookingDto.setStatus(view.getStatus());
+        return bookingDto;
+    }
+
     public static Booking mapToBooking(BookingDto bookingDto, Item item, User user) {
         Booking booking = new Booking();
         booking.setStart(bookingDto.getStart());
@@ -20,7 +20,8 @@ import java.time.LocalDateTime;
 public class Booking {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
     @Column(name = "start_date")
     private LocalDateTime start;
@@ -37,4 +38,12 @@ public class Booking {
     @Enumerated(EnumType.STRING)
     @Type(type = "ru.practicum.shareit.booking.EnumTypePostgreSql")
     private BookingStatus status;
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    public Booking(Long id, LocalDateTime start, LocalDateTime end, Item item, User booker, Long bookerId,
+                   BookingStatus status) {
+        this(id, start, end, item, booker, bookerId, status, 0);
+    }
 }
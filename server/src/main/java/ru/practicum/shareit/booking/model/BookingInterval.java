@@ -0,0 +1,28 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class BookingInterval {
+
+    private final Long itemId;
+    private final Long bookingId;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+
+    public static BookingInterval of(Booking booking) {
+        return new BookingInterval(booking.getItem().getId(), booking.getId(), booking.getStart(), booking.getEnd());
+    }
+
+    public boolean overlaps(LocalDateTime otherStart, LocalDateTime otherEnd) {
+        return start.isBefore(otherEnd) && end.isAfter(otherStart);
+    }
+}
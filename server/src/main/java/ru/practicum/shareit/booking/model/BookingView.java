@@ -0,0 +1,31 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка списка бронирований: ровно те поля бронирования, вещи и арендатора, которые нужны BookingDto.
+ * Заполняется выражением-конструктором в одном запросе с join, без загрузки сущностей.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class BookingView {
+
+    private final Long id;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final BookingStatus status;
+    private final Long itemId;
+    private final String itemName;
+    private final String itemDescription;
+    private final Boolean itemAvailable;
+    private final Long itemRequestId;
+    private final Long bookerId;
+    private final String bookerName;
+    private final String bookerEmail;
+}
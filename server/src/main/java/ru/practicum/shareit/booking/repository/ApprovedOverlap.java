@@ -0,0 +1,37 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.hibernate.exception.ConstraintViolationException;
+
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Распознает нарушение ограничения ex_bookings_approved_overlap среди причин исключения.
+ */
+public final class ApprovedOverlap {
+
+    public static final String CONSTRAINT = "ex_bookings_approved_overlap";
+    // SQLState нарушения ограничения-исключения в PostgreSQL
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
+    private ApprovedOverlap() {
+    }
+
+    public static boolean isViolatedBy(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException
+                    && CONSTRAINT.equalsIgnoreCase(((ConstraintViolationException) cause).getConstraintName())) {
+                return true;
+            }
+            // В пакетном обновлении причина ошибки строки лежит в цепочке getNextException
+            for (SQLException sql = cause instanceof SQLException ? (SQLException) cause : null; sql != null;
+                 sql = sql.getNextException()) {
+                if (EXCLUSION_VIOLATION.equals(sql.getSQLState()) || sql.getMessage() != null
+                        && sql.getMessage().toLowerCase(Locale.ROOT).contains(CONSTRAINT)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
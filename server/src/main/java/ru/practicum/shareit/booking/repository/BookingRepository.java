@@ -1,89 +1,75 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.booking.enums.BookingStatus;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingInterval;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
 
     List<Booking> getBookingsByBookerId_OrderByStartDesc(Long userId);
 
-    List<Booking> getBookingsByBookerId_OrderByStartDesc(Long userId, Pageable pageable);
-
-    @Query("select b from Booking as b " +
-            "where b.booker.id = ?1 " +
-            "and current_timestamp between b.start and b.end " +
-            "order by b.start ")
-    List<Booking> getBookingsByBookerId_OrderByStart_Current(Long userId);
-
     @Query("select b from Booking as b " +
-            "where b.booker.id = ?1 " +
-            "and b.end < current_timestamp " +
-            "order by b.start desc")
-    List<Booking> getBookingsByBookerId_OrderByStart_Past(Long userId);
-
-    @Query("select b from Booking as b " +
-            "where b.booker.id = ?1 " +
-            "and b.start > current_timestamp " +
-            "order by b.start desc")
-    List<Booking> getBookingsByBookerId_OrderByStart_Future(Long userId);
-
-    @Query("select b from Booking as b " +
-            "where b.booker.id = ?1 " +
-            "and b.status = ?2 " +
-            "order by b.start desc")
-    List<Booking> getBookingsByBookerId_OrderByBookerId(Long userId, BookingStatus status);
-
-    List<Booking> getBookingsByItemOwnerOrderByStartDesc(Long userId);
-
-    List<Booking> getBookingsByItemOwnerOrderByStartDesc(Long userId, Pageable pageable);
-
-
-    @Query("select b from Booking as b " +
-            "where b.item.owner = ?1 " +
-            "and current_timestamp between b.start and b.end " +
-            "order by b.start desc")
-    List<Booking> getBookingsByOwnerAndStatus_Current(Long userId);
-
-    @Query("select b from Booking as b " +
-            "where b.item.owner = ?1 " +
-            "and b.end < current_timestamp " +
-            "order by b.start desc")
-    List<Booking> getBookingsByOwnerAndStatus_Past(Long userId);
-
-    @Query("select b from Booking as b " +
-            "where b.item.owner = ?1 " +
-            "and b.start > current_timestamp " +
-            "order by b.start desc")
-    List<Booking> getBookingsByOwnerAndStatus_Future(Long userId);
-
-    @Query("select b from Booking as b " +
-            "where b.item.owner = ?1 " +
-            "and b.status = ?2 " +
-            "order by b.start desc")
-    List<Booking> getBookingByOwnerAndStatus(Long userId, BookingStatus status);
-
-    @Query(nativeQuery = true, value = "select * from bookings as b " +
-            "where b.item_id = ?1 " +
-            "and b.status = 'APPROVED' " +
-            "and b.start_date < current_timestamp " +
-            "order by b.start_date desc " +
-            "limit 1")
-    Optional<Booking> getLastBooking(Long itemId);
-
-    @Query(nativeQuery = true, value = "select * from bookings as b " +
-            "where b.item_id = ?1 " +
+            "join fetch b.item " +
+            "join fetch b.booker " +
+            "where b.id in ?1")
+    List<Booking> findAllWithItemById(Collection<Long> ids);
+
+    @Query("select distinct b.item.id from Booking as b " +
+            "where b.status = ?1")
+    List<Long> findItemIdsByStatus(BookingStatus status);
+
+    @Query("select new ru.practicum.shareit.booking.model.BookingInterval(b.item.id, b.id, b.start, b.end) " +
+            "from Booking as b " +
+            "where b.status = ?1 " +
+            "and b.end > ?2")
+    List<BookingInterval> findIntervals(BookingStatus status, LocalDateTime endAfter);
+
+    /**
+     * Меняет статус бронирования одним запросом, только если бронирование принадлежит вещи владельца
+     * и все еще находится в статусе expected. Возвращает число измененных строк: 0 означает,
+     * что условие не выполнено (в том числе потому, что статус уже поменял параллельный запрос).
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking as b set b.status = ?4, b.version = b.version + 1 " +
+            "where b.id = ?1 " +
+            "and b.status = ?3 " +
+            "and b.item.id in (select i.id from Item as i where i.owner = ?2)")
+    int updateStatus(Long bookingId, Long ownerId, BookingStatus expected, BookingStatus status);
+
+    /**
+     * Последнее и следующее подтвержденные бронирования для каждой из вещей за один запрос:
+     * не более двух строк на вещь, начало раньше или позже момента now соответственно.
+     */
+    @Query(nativeQuery = true, value = "select * from (" +
+            "select b.*, row_number() over (" +
+            "partition by b.item_id, case when b.start_date < ?2 then 0 else 1 end " +
+            "order by case when b.start_date < ?2 then b.start_date end desc, b.start_date) as rn " +
+            "from bookings as b " +
+            "where b.item_id in (?1) " +
             "and b.status = 'APPROVED' " +
-            "and b.start_date > current_timestamp " +
-            "order by b.start_date " +
-            "limit 1")
-    Optional<Booking> getNextBooking(Long itemId);
+            "and b.start_date <> ?2) as ranked " +
+            "where ranked.rn = 1")
+    List<Booking> getLastAndNextBookings(Collection<Long> itemIds, LocalDateTime now);
+
+    /**
+     * Ревизия бронирования из версий бронирования, вещи и арендатора; только для арендатора или владельца вещи.
+     */
+    @Query("select concat(str(b.version), '-', str(i.version), '-', str(u.version)) " +
+            "from Booking b " +
+            "join b.item i " +
+            "join b.booker u " +
+            "where b.id = ?1 " +
+            "and (u.id = ?2 or i.owner = ?2)")
+    Optional<String> findRevision(Long bookingId, Long userId);
 
 }
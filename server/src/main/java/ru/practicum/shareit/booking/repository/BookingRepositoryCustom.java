@@ -0,0 +1,35 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingView;
+
+import java.util.List;
+import java.util.Map;
+
+public interface BookingRepositoryCustom {
+
+    /**
+     * Результат updateStatuses для бронирования, подтверждение которого нарушило ограничение
+     * ex_bookings_approved_overlap.
+     */
+    int APPROVED_OVERLAP = -1;
+
+    /**
+     * Возвращает бронирования, удовлетворяющие спецификации, одним запросом с join вещи и арендатора,
+     * с ограничением выборки на стороне БД и без дополнительного запроса на подсчет строк.
+     * Если в pageable не задана сортировка, бронирования упорядочиваются по убыванию даты начала и id.
+     */
+    List<BookingView> findBookings(Specification<Booking> specification, Pageable pageable);
+
+    /**
+     * Меняет статусы бронирований одним JDBC-пакетом. Строка обновляется, только если бронирование
+     * все еще находится в статусе expected. Возвращает число измененных строк для каждого бронирования
+     * в порядке обхода statuses. Если подтверждение нарушает ограничение ex_bookings_approved_overlap,
+     * пакет откатывается до точки сохранения и строки обновляются по одной, каждая в своей точке сохранения;
+     * для отклоненных строк возвращается {@link #APPROVED_OVERLAP}, остальные изменения сохраняются.
+     */
+    int[] updateStatuses(Map<Long, BookingStatus> statuses, BookingStatus expected);
+}
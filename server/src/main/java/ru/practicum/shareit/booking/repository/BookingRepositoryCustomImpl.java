@@ -0,0 +1,126 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("start"), Sort.Order.desc("id"));
+    private static final String UPDATE_STATUS =
+            "update bookings set status = ?, version = version + 1 where id = ? and status = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public BookingRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<BookingView> findBookings(Specification<Booking> specification, Pageable pageable) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingView> query = builder.createQuery(BookingView.class);
+        Root<Booking> root = query.from(Booking.class);
+        Join<Booking, Item> item = root.join("item");
+        Join<Booking, User> booker = root.join("booker");
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : NEWEST_FIRST;
+        query.select(builder.construct(BookingView.class,
+                        root.get("id"), root.get("start"), root.get("end"), root.get("status"),
+                        item.get("id"), item.get("name"), item.get("description"), item.get("available"),
+                        item.get("requestId"),
+                        booker.get("id"), booker.get("name"), booker.get("email")))
+                .orderBy(QueryUtils.toOrders(sort, root, builder));
+
+        TypedQuery<BookingView> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult(Math.toIntExact(pageable.getOffset()));
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        return typedQuery.getResultList();
+    }
+
+    @Override
+    public int[] updateStatuses(Map<Long, BookingStatus> statuses, BookingStatus expected) {
+        List<Map.Entry<Long, BookingStatus>> changes = new ArrayList<>(statuses.entrySet());
+        return jdbcTemplate.execute((ConnectionCallback<int[]>) connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            try (PreparedStatement ps = connection.prepareStatement(UPDATE_STATUS)) {
+                for (Map.Entry<Long, BookingStatus> change : changes) {
+                    setValues(ps, change, expected);
+                    ps.addBatch();
+                }
+                int[] updated = ps.executeBatch();
+                connection.releaseSavepoint(savepoint);
+                return updated;
+            } catch (SQLException e) {
+                if (!ApprovedOverlap.isViolatedBy(e)) {
+                    throw e;
+                }
+                connection.rollback(savepoint);
+            }
+            // Пакет отклонен целиком, поэтому строки повторяются по одной, чтобы найти пересекающиеся
+            int[] updated = new int[changes.size()];
+            try (PreparedStatement ps = connection.prepareStatement(UPDATE_STATUS)) {
+                for (int i = 0; i < changes.size(); i++) {
+                    setValues(ps, changes.get(i), expected);
+                    updated[i] = updateInSavepoint(connection, ps);
+                }
+            }
+            return updated;
+        });
+    }
+
+    private static int updateInSavepoint(Connection connection, PreparedStatement ps) throws SQLException {
+        Savepoint savepoint = connection.setSavepoint();
+        try {
+            int updated = ps.executeUpdate();
+            connection.releaseSavepoint(savepoint);
+            return updated;
+        } catch (SQLException e) {
+            if (!ApprovedOverlap.isViolatedBy(e)) {
+                throw e;
+            }
+            connection.rollback(savepoint);
+            return APPROVED_OVERLAP;
+        }
+    }
+
+    private static void setValues(PreparedStatement ps, Map.Entry<Long, BookingStatus> change,
+                                  BookingStatus expected) throws SQLException {
+        ps.setObject(1, change.getValue().name(), Types.OTHER);
+        ps.setLong(2, change.getKey());
+        ps.setObject(3, expected.name(), Types.OTHER);
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.enums.BookingState;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.exceptions.UnsupportedStatusException;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+
+public class BookingSpecifications {
+
+    public static Specification<Booking> byBooker(Long userId) {
+        return (root, query, builder) -> builder.equal(root.get("booker").get("id"), userId);
+    }
+
+    public static Specification<Booking> byOwner(Long userId) {
+        return (root, query, builder) -> builder.equal(item(root).get("owner"), userId);
+    }
+
+    public static Specification<Booking> inState(BookingState state, LocalDateTime now) {
+        switch (state) {
+            case ALL:
+                return (root, query, builder) -> null;
+            case CURRENT:
+                return (root, query, builder) -> builder.and(
+                        builder.lessThanOrEqualTo(root.get("start"), now),
+                        builder.greaterThanOrEqualTo(root.get("end"), now));
+            case PAST:
+                return (root, query, builder) -> builder.lessThan(root.get("end"), now);
+            case FUTURE:
+                return (root, query, builder) -> builder.greaterThan(root.get("start"), now);
+            case WAITING:
+                return withStatus(BookingStatus.WAITING);
+            case REJECTED:
+                return withStatus(BookingStatus.REJECTED);
+            default:
+                throw new UnsupportedStatusException("Unknown state: UNSUPPORTED_STATUS");
+        }
+    }
+
+    public static Specification<Booking> afterCursor(BookingCursor cursor) {
+        return (root, query, builder) -> builder.or(
+                builder.lessThan(root.get("start"), cursor.getStart()),
+                builder.and(
+                        builder.equal(root.get("start"), cursor.getStart()),
+                        builder.lessThan(root.get("id"), cursor.getId())));
+    }
+
+    /**
+     * Переиспользует join вещи, уже добавленный в запрос, чтобы условие по владельцу не порождало второй join.
+     */
+    @SuppressWarnings("unchecked")
+    private static Join<Booking, Item> item(Root<Booking> root) {
+        return root.getJoins().stream()
+                .filter(join -> join.getAttribute().getName().equals("item"))
+                .map(join -> (Join<Booking, Item>) join)
+                .findFirst()
+                .orElseGet(() -> root.join("item"));
+    }
+
+    private static Specification<Booking> withStatus(BookingStatus status) {
+        return (root, query, builder) -> builder.equal(root.get("status"), status);
+    }
+}
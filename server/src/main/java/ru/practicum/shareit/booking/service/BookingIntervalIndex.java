@@ -0,0 +1,119 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.BookingInterval;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Индекс подтвержденных бронирований по вещам. Подтвержденные интервалы одной вещи не пересекаются,
+ * поэтому для проверки пересечения достаточно найти интервал с ближайшим меньшим началом — O(log n).
+ * Индекс локален для узла, источник истины при нескольких узлах — ограничение ex_bookings_approved_overlap в БД.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookingIntervalIndex {
+
+    private static final Comparator<BookingInterval> BY_START = Comparator
+            .comparing(BookingInterval::getStart)
+            .thenComparing(BookingInterval::getBookingId);
+
+    private final BookingRepository bookingRepository;
+    private final Map<Long, NavigableSet<BookingInterval>> intervalsByItem = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<BookingInterval> intervals = bookingRepository.findIntervals(BookingStatus.APPROVED, LocalDateTime.now());
+        for (BookingInterval interval : intervals) {
+            NavigableSet<BookingInterval> itemIntervals = intervalsFor(interval.getItemId());
+            synchronized (itemIntervals) {
+                if (findOverlap(itemIntervals, interval.getStart(), interval.getEnd()) != null) {
+                    log.warn("Подтвержденное бронирование {} пересекается с другим бронированием вещи", interval);
+                }
+                itemIntervals.add(interval);
+            }
+        }
+        log.info("Индекс бронирований загружен: {} интервалов", intervals.size());
+    }
+
+    public boolean overlaps(Long itemId, LocalDateTime start, LocalDateTime end) {
+        NavigableSet<BookingInterval> itemIntervals = intervalsByItem.get(itemId);
+        if (itemIntervals == null) {
+            return false;
+        }
+        synchronized (itemIntervals) {
+            return findOverlap(itemIntervals, start, end) != null;
+        }
+    }
+
+    /**
+     * Атомарно добавляет интервал, если он не пересекается с уже подтвержденными.
+     * При откате текущей транзакции интервал будет удален из индекса.
+     */
+    public boolean tryReserve(BookingInterval interval) {
+        NavigableSet<BookingInterval> itemIntervals = intervalsFor(interval.getItemId());
+        synchronized (itemIntervals) {
+            pruneFinished(itemIntervals, LocalDateTime.now());
+            if (findOverlap(itemIntervals, interval.getStart(), interval.getEnd()) != null) {
+                return false;
+            }
+            itemIntervals.add(interval);
+        }
+        releaseOnRollback(interval);
+        return true;
+    }
+
+    public void release(BookingInterval interval) {
+        NavigableSet<BookingInterval> itemIntervals = intervalsByItem.get(interval.getItemId());
+        if (itemIntervals != null) {
+            synchronized (itemIntervals) {
+                itemIntervals.remove(interval);
+            }
+        }
+    }
+
+    private NavigableSet<BookingInterval> intervalsFor(Long itemId) {
+        return intervalsByItem.computeIfAbsent(itemId, id -> new TreeSet<>(BY_START));
+    }
+
+    private BookingInterval findOverlap(NavigableSet<BookingInterval> itemIntervals,
+                                        LocalDateTime start, LocalDateTime end) {
+        BookingInterval candidate = itemIntervals.lower(new BookingInterval(null, Long.MIN_VALUE, end, end));
+        return candidate != null && candidate.overlaps(start, end) ? candidate : null;
+    }
+
+    private void pruneFinished(NavigableSet<BookingInterval> itemIntervals, LocalDateTime now) {
+        while (!itemIntervals.isEmpty() && itemIntervals.first().getEnd().isBefore(now)) {
+            itemIntervals.pollFirst();
+        }
+    }
+
+    private void releaseOnRollback(BookingInterval interval) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    release(interval);
+                }
+            }
+        });
+    }
+}
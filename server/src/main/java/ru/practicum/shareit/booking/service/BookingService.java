@@ -1,19 +1,33 @@
 package ru.practicum.shareit.booking.service;
 
 import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeResultDto;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface BookingService {
 
     BookingDto addBooking(Long userId, BookingDto bookingDto);
 
+    List<BookingDto> addBookings(Long userId, List<BookingDto> bookingDtos);
+
     BookingDto changeStatus(Long userId, Long bookingId, boolean approved);
 
+    List<BookingStatusChangeResultDto> changeStatuses(Long userId, List<BookingStatusChangeDto> changes);
+
     BookingDto getBooking(Long userId, Long bookingId);
 
+    Optional<String> getBookingRevision(Long userId, Long bookingId);
+
     List<BookingDto> getAllBookingsByBooker(Long userId, String state, Pageable pageable);
 
     List<BookingDto> getAllBookingsByOwner(Long userId, String state, Pageable pageable);
+
+    List<BookingDto> getAllBookingsByBooker(Long userId, String state, BookingCursor cursor, int size);
+
+    List<BookingDto> getAllBookingsByOwner(Long userId, String state, BookingCursor cursor, int size);
 }
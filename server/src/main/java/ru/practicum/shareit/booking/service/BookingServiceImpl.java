@@ -1,26 +1,45 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.AllArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeResultDto;
 import ru.practicum.shareit.booking.enums.BookingState;
 import ru.practicum.shareit.booking.enums.BookingStatus;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingInterval;
+import ru.practicum.shareit.booking.repository.ApprovedOverlap;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingSpecifications;
 import ru.practicum.shareit.exceptions.BadRequestException;
+import ru.practicum.shareit.exceptions.BookingOverlapException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.UnsupportedStatusException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingPointerService;
+import ru.practicum.shareit.item.service.ItemViewCache;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.KnownUsers;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,6 +49,10 @@ public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final KnownUsers knownUsers;
+    private final ItemBookingPointerService itemBookingPointerService;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemViewCache itemViewCache;
 
     @Transactional
     @Override
@@ -39,6 +62,38 @@ public class BookingServiceImpl implements BookingService {
         User user = userRepository.findById(userId).orElseThrow(() ->
                 new NotFoundException("Пользователь с id = " + userId + " не найден"));
         Item item = itemOptional.get();
+        validateBooking(userId, item, bookingDto);
+        Booking booking = BookingMapper.mapToBooking(bookingDto, item, user);
+        itemViewCache.invalidateAfterCommit(List.of(item.getId()));
+        return BookingMapper.mapToBookingDto(bookingRepository.save(booking));
+    }
+
+    @Transactional
+    @Override
+    public List<BookingDto> addBookings(Long userId, List<BookingDto> bookingDtos) {
+        User user = userRepository.findById(userId).orElseThrow(() ->
+                new NotFoundException("Пользователь с id = " + userId + " не найден"));
+        Set<Long> itemIds = bookingDtos.stream()
+                .map(BookingDto::getItemId)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<Booking> bookings = new ArrayList<>();
+        for (BookingDto bookingDto : bookingDtos) {
+            Item item = items.get(bookingDto.getItemId());
+            if (item == null) {
+                throw new NotFoundException("Вещь с id = " + bookingDto.getItemId() + " не найдена");
+            }
+            validateBooking(userId, item, bookingDto);
+            bookings.add(BookingMapper.mapToBooking(bookingDto, item, user));
+        }
+        itemViewCache.invalidateAfterCommit(items.keySet());
+        return bookingRepository.saveAll(bookings).stream()
+                .map(BookingMapper::mapToBookingDto)
+                .collect(Collectors.toList());
+    }
+
+    private void validateBooking(Long userId, Item item, BookingDto bookingDto) {
         if (userId.equals(item.getOwner())) {
             throw new NotFoundException("Владелец вещи не может создать на нее бронирование");
         }
@@ -55,31 +110,129 @@ public class BookingServiceImpl implements BookingService {
                 || bookingDto.getStart().isEqual(bookingDto.getEnd())) {
             throw new BadRequestException("Дата окончания бронирования не должна быть позже даты начала");
         }
-        Booking booking = BookingMapper.mapToBooking(bookingDto, item, user);
-        return BookingMapper.mapToBookingDto(bookingRepository.save(booking));
+        if (bookingIntervalIndex.overlaps(item.getId(), bookingDto.getStart(), bookingDto.getEnd())) {
+            throw new BadRequestException("Вещь уже забронирована на указанные даты");
+        }
     }
 
     @Transactional
     @Override
     public BookingDto changeStatus(Long userId, Long bookingId, boolean approved) {
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        if (updateStatus(bookingId, userId, status) == 0) {
+            throw statusChangeRejected(userId, bookingId);
+        }
+        Booking booking = bookingRepository.findById(bookingId).orElseThrow(() ->
+                new NotFoundException("Бронирование с id = " + bookingId + " не найдено"));
+        if (approved && !bookingIntervalIndex.tryReserve(BookingInterval.of(booking))) {
+            throw new BadRequestException("Бронирование пересекается с уже подтвержденным бронированием вещи");
+        }
+        if (approved) {
+            itemBookingPointerService.refresh(List.of(booking.getItem().getId()));
+        }
+        itemViewCache.invalidateAfterCommit(List.of(booking.getItem().getId()));
+        return BookingMapper.mapToBookingDto(booking);
+    }
+
+    @Transactional
+    @Override
+    public List<BookingStatusChangeResultDto> changeStatuses(Long userId, List<BookingStatusChangeDto> changes) {
+        Set<Long> bookingIds = changes.stream()
+                .map(BookingStatusChangeDto::getBookingId)
+                .collect(Collectors.toSet());
+        Map<Long, Booking> bookings = bookingRepository.findAllWithItemById(bookingIds).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        List<BookingStatusChangeResultDto> results = new ArrayList<>();
+        Map<Long, BookingStatus> statuses = new LinkedHashMap<>();
+        for (BookingStatusChangeDto change : changes) {
+            Long bookingId = change.getBookingId();
+            Booking booking = bookings.get(bookingId);
+            BookingStatus status = change.getApproved() ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+            String error = null;
+            if (booking == null) {
+                error = "Бронирование с id = " + bookingId + " не найдено";
+            } else if (!booking.getItem().getOwner().equals(userId)) {
+                error = "Пользователь не является владельцем вещи для бронирования";
+            } else if (statuses.containsKey(bookingId)) {
+                error = "Решение по бронированию уже указано в запросе";
+            } else if (booking.getStatus().equals(BookingStatus.APPROVED)) {
+                error = "Владелец вещи уже одобрил бронь вещи";
+            } else if (!booking.getStatus().equals(BookingStatus.WAITING)) {
+                error = "Владелец вещи уже рассмотрел бронь вещи";
+            } else if (change.getApproved() && !bookingIntervalIndex.tryReserve(BookingInterval.of(booking))) {
+                error = "Бронирование пересекается с уже подтвержденным бронированием вещи";
+            }
+            if (error == null) {
+                statuses.put(bookingId, status);
+                results.add(BookingStatusChangeResultDto.applied(bookingId, status));
+            } else {
+                results.add(BookingStatusChangeResultDto.failed(bookingId, error));
+            }
+        }
+        if (statuses.isEmpty()) {
+            return results;
+        }
+
+        int[] updated = bookingRepository.updateStatuses(statuses, BookingStatus.WAITING);
+        Set<Long> approvedItemIds = new HashSet<>();
+        int batchIndex = 0;
+        for (int i = 0; i < results.size(); i++) {
+            BookingStatusChangeResultDto result = results.get(i);
+            if (!result.isApplied()) {
+                continue;
+            }
+            Booking booking = bookings.get(result.getBookingId());
+            boolean approved = result.getStatus().equals(BookingStatus.APPROVED);
+            int rows = updated[batchIndex++];
+            if (rows == 0 || rows == BookingRepository.APPROVED_OVERLAP) {
+                if (approved) {
+                    bookingIntervalIndex.release(BookingInterval.of(booking));
+                }
+                results.set(i, BookingStatusChangeResultDto.failed(booking.getId(), rows == 0
+                        ? "Владелец вещи уже рассмотрел бронь вещи"
+                        : "Бронирование пересекается с уже подтвержденным бронированием вещи"));
+            } else if (approved) {
+                approvedItemIds.add(booking.getItem().getId());
+            }
+        }
+        if (!approvedItemIds.isEmpty()) {
+            itemBookingPointerService.refresh(approvedItemIds);
+            itemViewCache.invalidateAfterCommit(approvedItemIds);
+        }
+        return results;
+    }
+
+    /**
+     * Пересечение с бронированием, подтвержденным на другом узле, находит только ограничение в БД.
+     */
+    private int updateStatus(Long bookingId, Long userId, BookingStatus status) {
+        try {
+            return bookingRepository.updateStatus(bookingId, userId, BookingStatus.WAITING, status);
+        } catch (DataIntegrityViolationException e) {
+            if (ApprovedOverlap.isViolatedBy(e)) {
+                throw new BookingOverlapException("Бронирование пересекается с уже подтвержденным бронированием вещи");
+            }
+            throw e;
+        }
+    }
+
+    private RuntimeException statusChangeRejected(Long userId, Long bookingId) {
         Booking booking = bookingRepository.findById(bookingId).orElseThrow(() ->
                 new NotFoundException("Бронирование с id = " + bookingId + " не найдено"));
         if (!booking.getItem().getOwner().equals(userId)) {
-            throw new NotFoundException("Пользователь не является владельцем вещи для бронирования");
+            return new NotFoundException("Пользователь не является владельцем вещи для бронирования");
         }
         if (booking.getStatus().equals(BookingStatus.APPROVED)) {
-            throw new BadRequestException("Владелец вещи уже одобрил бронь вещи");
+            return new BadRequestException("Владелец вещи уже одобрил бронь вещи");
         }
-        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
-        booking.setStatus(status);
-        return BookingMapper.mapToBookingDto(bookingRepository.save(booking));
+        return new BadRequestException("Владелец вещи уже рассмотрел бронь вещи");
     }
 
     @Transactional(readOnly = true)
     @Override
     public BookingDto getBooking(Long userId, Long bookingId) {
-        userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException("Пользователь с id = " + userId + " не найден"));
+        knownUsers.requireExists(userId);
         Booking booking = bookingRepository.findById(bookingId).orElseThrow(() ->
                 new NotFoundException("Бронирование с id = " + bookingId + " не найдено"));
         BookingDto bookingDto;
@@ -92,77 +245,57 @@ public class BookingServiceImpl implements BookingService {
         return bookingDto;
     }
 
+    /**
+     * Ревизия пустая и для чужого бронирования: тогда {@link #getBooking} ответит ошибкой, а не 304.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public Optional<String> getBookingRevision(Long userId, Long bookingId) {
+        return bookingRepository.findRevision(bookingId, userId);
+    }
+
     @Transactional(readOnly = true)
     @Override
     public List<BookingDto> getAllBookingsByBooker(Long userId, String state, Pageable pageable) {
-        userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException("Пользователь с id = " + userId + " не найден"));
-        BookingState bookingState = getBookingState(state);
-        List<Booking> bookings;
-
-        switch (bookingState) {
-            case ALL:
-                if (pageable != null) {
-                    bookings = bookingRepository.getBookingsByBookerId_OrderByStartDesc(userId, pageable);
-                } else {
-                    bookings = bookingRepository.getBookingsByBookerId_OrderByStartDesc(userId);
-                }
-                break;
-            case CURRENT:
-                bookings = bookingRepository.getBookingsByBookerId_OrderByStart_Current(userId);
-                break;
-            case PAST:
-                bookings = bookingRepository.getBookingsByBookerId_OrderByStart_Past(userId);
-                break;
-            case FUTURE:
-                bookings = bookingRepository.getBookingsByBookerId_OrderByStart_Future(userId);
-                break;
-            case WAITING:
-            case REJECTED:
-                BookingStatus status = BookingStatus.valueOf(state);
-                bookings = bookingRepository.getBookingsByBookerId_OrderByBookerId(userId, status);
-                break;
-            default:
-                throw new UnsupportedStatusException("Unknown state: UNSUPPORTED_STATUS");
-        }
-        return bookings.stream().map(BookingMapper::mapToBookingDto).collect(Collectors.toList());
+        knownUsers.requireExists(userId);
+        return findBookings(BookingSpecifications.byBooker(userId), getBookingState(state), null,
+                pageable == null ? Pageable.unpaged() : pageable);
     }
 
     @Transactional(readOnly = true)
     @Override
     public List<BookingDto> getAllBookingsByOwner(Long userId, String state, Pageable pageable) {
-        userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException("Пользователь с id = " + userId + " не найден"));
-        BookingState bookingState = getBookingState(state);
+        knownUsers.requireExists(userId);
+        return findBookings(BookingSpecifications.byOwner(userId), getBookingState(state), null,
+                pageable == null ? Pageable.unpaged() : pageable);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<BookingDto> getAllBookingsByBooker(Long userId, String state, BookingCursor cursor, int size) {
+        knownUsers.requireExists(userId);
+        return findBookings(BookingSpecifications.byBooker(userId), getBookingState(state), cursor,
+                PageRequest.of(0, size));
+    }
 
-        List<Booking> bookings;
+    @Transactional(readOnly = true)
+    @Override
+    public List<BookingDto> getAllBookingsByOwner(Long userId, String state, BookingCursor cursor, int size) {
+        knownUsers.requireExists(userId);
+        return findBookings(BookingSpecifications.byOwner(userId), getBookingState(state), cursor,
+                PageRequest.of(0, size));
+    }
 
-        switch (bookingState) {
-            case ALL:
-                if (pageable != null) {
-                    bookings = bookingRepository.getBookingsByItemOwnerOrderByStartDesc(userId, pageable);
-                } else {
-                    bookings = bookingRepository.getBookingsByItemOwnerOrderByStartDesc(userId);
-                }
-                break;
-            case CURRENT:
-                bookings = bookingRepository.getBookingsByOwnerAndStatus_Current(userId);
-                break;
-            case PAST:
-                bookings = bookingRepository.getBookingsByOwnerAndStatus_Past(userId);
-                break;
-            case FUTURE:
-                bookings = bookingRepository.getBookingsByOwnerAndStatus_Future(userId);
-                break;
-            case WAITING:
-            case REJECTED:
-                BookingStatus status = BookingStatus.valueOf(state);
-                bookings = bookingRepository.getBookingByOwnerAndStatus(userId, status);
-                break;
-            default:
-                throw new UnsupportedStatusException("Unknown state: UNSUPPORTED_STATUS");
-        }
-        return bookings.stream().map(BookingMapper::mapToBookingDto).collect(Collectors.toList());
+    private List<BookingDto> findBookings(Specification<Booking> participant, BookingState state,
+                                          BookingCursor cursor, Pageable pageable) {
+        Specification<Booking> specification = participant
+                .and(BookingSpecifications.inState(state, LocalDateTime.now()));
+        if (cursor != null) {
+            specification = specification.and(BookingSpecifications.afterCursor(cursor));
+        }
+        return bookingRepository.findBookings(specification, pageable).stream()
+                .map(BookingMapper::mapToBookingDto)
+                .collect(Collectors.toList());
     }
 
     private BookingState getBookingState(String state) {
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.cache;
+
+import java.util.List;
+
+/**
+ * Регионы кэша второго уровня Hibernate. Размер и время жизни каждого задаются в application.properties:
+ * spring.jpa.properties.shareit.cache.{регион}.max-entries и .ttl.
+ */
+public final class CacheRegions {
+
+    public static final String USERS = "users";
+    public static final String ITEMS = "items";
+    public static final String ITEMS_BY_OWNER = "items-by-owner";
+    public static final List<String> ALL = List.of(USERS, ITEMS, ITEMS_BY_OWNER);
+
+    private CacheRegions() {
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.cache;
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.util.Map;
+
+/**
+ * Кэш второго уровня Hibernate в памяти узла. Настройки региона берутся из свойств Hibernate
+ * shareit.cache.{регион}.max-entries и shareit.cache.{регион}.ttl, для остальных регионов —
+ * из shareit.cache.default.*. Подключается через hibernate.cache.region.factory_class.
+ */
+public class LocalRegionFactory extends RegionFactoryTemplate {
+
+    static final String PREFIX = "shareit.cache.";
+    private static final String DEFAULT_MAX_ENTRIES = "10000";
+    private static final String DEFAULT_TTL = "10m";
+
+    private Map<?, ?> configValues;
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map configValues) {
+        this.configValues = configValues;
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        configValues = null;
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                    DomainDataRegionBuildingContext buildingContext) {
+        return storage(regionConfig.getRegionName());
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName,
+                                                                  SessionFactoryImplementor sessionFactory) {
+        return storage(regionName);
+    }
+
+    /**
+     * Метки последнего изменения таблиц не вытесняются и не устаревают: без метки кэш запросов
+     * счел бы актуальным результат, снятый до изменения таблицы. Меток столько, сколько таблиц.
+     */
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName,
+                                                                SessionFactoryImplementor sessionFactory) {
+        return new LocalStorageAccess(Integer.MAX_VALUE, 0, System::nanoTime);
+    }
+
+    private LocalStorageAccess storage(String regionName) {
+        int maxEntries = Integer.parseInt(setting(regionName, "max-entries", DEFAULT_MAX_ENTRIES));
+        long ttlNanos = DurationStyle.detectAndParse(setting(regionName, "ttl", DEFAULT_TTL)).toNanos();
+        return new LocalStorageAccess(maxEntries, ttlNanos, System::nanoTime);
+    }
+
+    private String setting(String regionName, String name, String defaultValue) {
+        Object value = configValues.get(PREFIX + regionName + "." + name);
+        if (value == null) {
+            value = configValues.get(PREFIX + "default." + name);
+        }
+        return value == null ? defaultValue : value.toString().strip();
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.cache;
+
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Хранилище одного региона: LRU на maxEntries записей, каждая живет не дольше ttlNanos (0 — без ограничения).
+ * Блокировки и согласованность с транзакциями обеспечивает стратегия доступа Hibernate поверх хранилища.
+ */
+class LocalStorageAccess implements DomainDataStorageAccess {
+
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final Map<Object, Entry> entries;
+
+    LocalStorageAccess(int maxEntries, long ttlNanos, LongSupplier clock) {
+        this.ttlNanos = ttlNanos;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public synchronized Object getFromCache(Object key, SharedSessionContractImplementor session) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (ttlNanos > 0 && clock.getAsLong() - entry.createdAt >= ttlNanos) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    @Override
+    public synchronized void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+        entries.put(key, new Entry(value, clock.getAsLong()));
+    }
+
+    @Override
+    public synchronized boolean contains(Object key) {
+        return getFromCache(key, null) != null;
+    }
+
+    @Override
+    public synchronized void evictData() {
+        entries.clear();
+    }
+
+    @Override
+    public synchronized void evictData(Object key) {
+        entries.remove(key);
+    }
+
+    @Override
+    public void release() {
+        evictData();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private static class Entry {
+        private final Object value;
+        private final long createdAt;
+
+        Entry(Object value, long createdAt) {
+            this.value = value;
+            this.createdAt = createdAt;
+        }
+    }
+}
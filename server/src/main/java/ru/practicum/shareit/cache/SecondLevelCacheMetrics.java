@@ -0,0 +1,63 @@
+package ru.practicum.shareit.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.function.ToLongFunction;
+
+/**
+ * Попадания, промахи и доля попаданий по регионам кэша второго уровня для /actuator/metrics.
+ * Счетчики ведет Hibernate, поэтому метрики регистрируются, только если включено shareit.cache.statistics.
+ * Регион кэша запросов создается при первом запросе, до этого его показатели равны нулю.
+ */
+@Component
+public class SecondLevelCacheMetrics implements MeterBinder {
+
+    private final Statistics statistics;
+
+    public SecondLevelCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!statistics.isStatisticsEnabled()) {
+            return;
+        }
+        for (String region : CacheRegions.ALL) {
+            FunctionCounter.builder("shareit.cache.l2.requests", this,
+                            metrics -> metrics.count(region, CacheRegionStatistics::getHitCount))
+                    .tags("region", region, "result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("shareit.cache.l2.requests", this,
+                            metrics -> metrics.count(region, CacheRegionStatistics::getMissCount))
+                    .tags("region", region, "result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("shareit.cache.l2.puts", this,
+                            metrics -> metrics.count(region, CacheRegionStatistics::getPutCount))
+                    .tags("region", region)
+                    .register(registry);
+            Gauge.builder("shareit.cache.l2.hit.ratio", this, metrics -> metrics.hitRatio(region))
+                    .tags("region", region)
+                    .register(registry);
+        }
+    }
+
+    double hitRatio(String region) {
+        double hits = count(region, CacheRegionStatistics::getHitCount);
+        double requests = hits + count(region, CacheRegionStatistics::getMissCount);
+        return requests == 0 ? 0 : hits / requests;
+    }
+
+    private double count(String region, ToLongFunction<CacheRegionStatistics> counter) {
+        CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+        return regionStatistics == null ? 0 : counter.applyAsLong(regionStatistics);
+    }
+}
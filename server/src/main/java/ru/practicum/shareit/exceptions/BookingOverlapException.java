@@ -0,0 +1,12 @@
+package ru.practicum.shareit.exceptions;
+
+/**
+ * Подтверждение бронирования нарушает запрет пересечения подтвержденных бронирований одной вещи в БД
+ * (ограничение ex_bookings_approved_overlap), например когда пересекающееся бронирование подтвердили на другом узле.
+ */
+public class BookingOverlapException extends RuntimeException {
+
+    public BookingOverlapException(String message) {
+        super(message);
+    }
+}
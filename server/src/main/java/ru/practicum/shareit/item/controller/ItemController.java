@@ -2,13 +2,18 @@ package ru.practicum.shareit.item.controller;
 
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.ETagUtil;
 import ru.practicum.shareit.PageRequestUtil;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
 
 import javax.validation.Valid;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -40,18 +45,35 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}")
-    public ItemDto getItem(@RequestHeader("X-Sharer-User-Id") long userId,
-                           @PathVariable("itemId") long itemId) {
-        return itemService.getItem(userId, itemId);
+    public ResponseEntity<ItemDto> getItem(@RequestHeader("X-Sharer-User-Id") long userId,
+                                           @PathVariable("itemId") long itemId,
+                                           WebRequest request) {
+        return ETagUtil.conditionalGet(request, itemService.getItemRevision(userId, itemId),
+                () -> itemService.getItem(userId, itemId));
     }
 
     @GetMapping("/search")
     public List<ItemDto> searchForItems(@RequestHeader("X-Sharer-User-Id") long userId,
                                         @RequestParam String text,
                                         @RequestParam(required = false) Integer from,
-                                        @RequestParam(required = false) Integer size) {
+                                        @RequestParam(required = false) Integer size,
+                                        @RequestParam(defaultValue = "false") boolean fuzzy,
+                                        @RequestParam(required = false)
+                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                        @RequestParam(required = false)
+                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
         Pageable pageable = PageRequestUtil.createPageRequest(from, size);
-        return itemService.searchForItems(userId, text, pageable);
+        if (fuzzy) {
+            return itemService.fuzzySearchForItems(userId, text, start, end, pageable);
+        }
+        return itemService.searchForItems(userId, text, start, end, pageable);
+    }
+
+    @GetMapping("/suggest")
+    public List<String> suggest(@RequestHeader("X-Sharer-User-Id") long userId,
+                                @RequestParam String prefix,
+                                @RequestParam(defaultValue = "10") int size) {
+        return itemService.suggest(userId, prefix, size);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -1,6 +1,9 @@
 package ru.practicum.shareit.item.model;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import ru.practicum.shareit.cache.CacheRegions;
 
 import javax.persistence.*;
 
@@ -12,7 +15,8 @@ import javax.persistence.*;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder(toBuilder = true)
-
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.ITEMS)
 public class Item {
 
     @Id
@@ -28,4 +32,11 @@ public class Item {
     private Long owner;
     @Column(name = "request_id")
     private Long requestId;
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    public Item(Long id, String name, String description, Boolean available, Long owner, Long requestId) {
+        this(id, name, description, available, owner, requestId, 0);
+    }
 }
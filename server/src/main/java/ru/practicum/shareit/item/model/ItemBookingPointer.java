@@ -0,0 +1,43 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import ru.practicum.shareit.booking.model.Booking;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Read model с последним и следующим подтвержденными бронированиями вещи.
+ * Обновляется при подтверждении бронирования и периодически, когда следующее бронирование начинается.
+ */
+@Entity
+@Table(name = "item_booking_pointers")
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+public class ItemBookingPointer {
+
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+    @ManyToOne
+    @JoinColumn(name = "last_booking_id")
+    private Booking lastBooking;
+    @ManyToOne
+    @JoinColumn(name = "next_booking_id")
+    private Booking nextBooking;
+    @Column(name = "next_start_date")
+    private LocalDateTime nextStart;
+
+    public ItemBookingPointer(Long itemId) {
+        this.itemId = itemId;
+    }
+
+    public boolean isStale(LocalDateTime now) {
+        return nextStart != null && !nextStart.isAfter(now);
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Все, от чего зависит карточка вещи: версия вещи, число комментариев и указатели бронирований.
+ * Читается одним запросом без сборки карточки, чтобы ответить на условный GET.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ItemRevision {
+
+    private final long version;
+    private final Long owner;
+    private final long comments;
+    private final Long lastBookingId;
+    private final Long nextBookingId;
+    private final LocalDateTime nextStart;
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.model.ItemBookingPointer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ItemBookingPointerRepository extends JpaRepository<ItemBookingPointer, Long> {
+
+    @Query("select p.itemId from ItemBookingPointer p " +
+            "where p.nextStart <= ?1")
+    List<Long> findItemIdsWithNextStartBefore(LocalDateTime now);
+}
@@ -3,31 +3,47 @@ package ru.practicum.shareit.item.repository;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.cache.CacheRegions;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemRevision;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ItemRepository extends JpaRepository<Item, Long> {
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemRepositoryCustom {
 
+    // Результат хранится в кэше запросов и сбрасывается Hibernate при любом изменении таблицы items
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = CacheRegions.ITEMS_BY_OWNER)})
     List<Item> findItemsByOwnerOrderById(Long userId);
 
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = CacheRegions.ITEMS_BY_OWNER)})
     List<Item> findItemsByOwnerOrderById(Long userId, Pageable pageable);
 
-    @Query("select i from Item i " +
-            "where i.available = true " +
-            "and (upper(i.name) like upper(concat('%', ?1, '%')) " +
-            "or upper(i.description) like upper(concat('%', ?1, '%')))")
-    List<Item> search(String text);
-
-    @Query("select i from Item i " +
-            "where i.available = true " +
-            "and (upper(i.name) like upper(concat('%', ?1, '%')) " +
-            "or upper(i.description) like upper(concat('%', ?1, '%')))")
-    List<Item> search(String text, Pageable pageable);
-
     Optional<Item> getItemByRequestId(Long requestId);
 
+    @Query("select i from Item i where i.id > ?1 order by i.id")
+    List<Item> findAllAfter(Long id, Pageable pageable);
+
+    // Префикс приходит нормализованным, как ключи ItemSuggestIndex: в нижнем регистре и с "е" вместо "ё"
+    @Query("select i.name from Item i " +
+            "where i.available = true and replace(lower(i.name), 'ё', 'е') like concat(?1, '%') " +
+            "group by i.name " +
+            "order by count(i) desc, i.name")
+    List<String> findNamesByPrefix(String prefix, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.item.model.ItemRevision(i.version, i.owner, " +
+            "(select count(c.id) from Comment c where c.item.id = i.id), lb.id, nb.id, p.nextStart) " +
+            "from Item i " +
+            "left join ItemBookingPointer p on p.itemId = i.id " +
+            "left join p.lastBooking lb " +
+            "left join p.nextBooking nb " +
+            "where i.id = ?1")
+    Optional<ItemRevision> findRevisionById(Long itemId);
+
 }
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+
+public interface ItemRepositoryCustom {
+
+    /**
+     * Доступные вещи, в названии или описании которых встречается текст. На PostgreSQL поиск идет
+     * по полнотекстовому индексу и упорядочивается по релевантности (ts_rank), на остальных базах —
+     * подстрочным сравнением без учета регистра. Из БД читается не больше size + 1 строк:
+     * лишняя строка только показывает, есть ли следующая страница, запрос count не выполняется.
+     * Если задан период start–end, возвращаются только вещи без подтвержденных бронирований в этот период.
+     */
+    Slice<Item> search(String text, LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    /**
+     * Доступные вещи, название или описание которых похоже на текст с учетом опечаток (сходство триграмм
+     * не ниже shareit.search.fuzzy-threshold), от самых похожих к менее похожим.
+     */
+    Slice<Item> fuzzySearch(String text, LocalDateTime start, LocalDateTime end, Pageable pageable);
+}
@@ -0,0 +1,243 @@
+package ru.practicum.shareit.item.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.RussianAnalyzer;
+import ru.practicum.shareit.item.search.Trigrams;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class ItemRepositoryCustomImpl implements ItemRepositoryCustom {
+
+    private static final String PERIOD = "{period}";
+    private static final String SUBSTRING_QUERY = "select i from Item i " +
+            "where i.available = true " +
+            "and (upper(i.name) like upper(concat('%', :text, '%')) " +
+            "or upper(i.description) like upper(concat('%', :text, '%'))) " +
+            "{period}" +
+            "order by case when upper(i.name) like upper(concat('%', :text, '%')) then 0 else 1 end, i.id";
+    // Веса {D, C, B, A}: совпадение в названии (A) в 2.5 раза весомее, чем в описании (B);
+    // нормализация 1 делит ранг на логарифм длины документа, как b в BM25
+    private static final String FULL_TEXT_QUERY = "select i.* from items as i, to_tsquery('russian', :query) as q " +
+            "where i.is_available " +
+            "and i.search_vector @@ q " +
+            "{period}" +
+            "order by ts_rank('{0.1, 0.2, 0.4, 1.0}', i.search_vector, q, 1) desc, i.id";
+    // Кандидаты читаются порциями по ключу без загрузки сущностей: в памяти остаются только лучшие для страницы
+    private static final String FUZZY_CANDIDATES_QUERY = "select i.id, i.name, i.description from Item i " +
+            "where i.available = true and i.id > :lastId and ({grams}) {period}order by i.id";
+    private static final String ITEMS_BY_IDS_QUERY = "select i from Item i where i.id in :ids";
+    private static final String GRAMS = "{grams}";
+    private static final String GRAM_MATCH = "replace(lower(i.name), 'ё', 'е') like :gram{n} " +
+            "or replace(lower(i.description), 'ё', 'е') like :gram{n}";
+    private static final int FUZZY_BATCH_SIZE = 1000;
+    private static final String FUZZY_QUERY = "select i.* from items as i " +
+            "where i.is_available " +
+            "and (:text <% i.name or :text <% i.description) " +
+            "{period}" +
+            "order by greatest(word_similarity(:text, i.name), word_similarity(:text, i.description)) desc, i.id";
+    // Анти-соединение по индексу ix_bookings_item_status_start: вещь свободна, если нет подтвержденного
+    // бронирования, пересекающего период
+    private static final String FREE_IN_PERIOD = "and not exists (select b.id from Booking b " +
+            "where b.item.id = i.id and b.status = :approved and b.start < :end and b.end > :start) ";
+    private static final String FREE_IN_PERIOD_NATIVE = "and not exists (select 1 from bookings as b " +
+            "where b.item_id = i.id and b.status = 'APPROVED' and b.start_date < :end and b.end_date > :start) ";
+
+    private final boolean postgreSql;
+    private final boolean fullText;
+    private final double fuzzyThreshold;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ItemRepositoryCustomImpl(DataSource dataSource,
+                                    @Value("${shareit.search.full-text:true}") boolean fullTextEnabled,
+                                    @Value("${shareit.search.fuzzy-threshold:0.3}") double fuzzyThreshold) {
+        this.postgreSql = isPostgreSql(dataSource);
+        this.fullText = fullTextEnabled && postgreSql;
+        this.fuzzyThreshold = fuzzyThreshold;
+    }
+
+    @Override
+    public Slice<Item> search(String text, LocalDateTime start, LocalDateTime end, Pageable pageable) {
+        Query query;
+        if (fullText) {
+            String tsQuery = toPrefixTsQuery(text);
+            if (tsQuery.isEmpty()) {
+                return new SliceImpl<>(List.of(), pageable, false);
+            }
+            query = nativeQuery(FULL_TEXT_QUERY, start, end).setParameter("query", tsQuery);
+        } else {
+            query = query(SUBSTRING_QUERY, start, end).setParameter("text", text);
+        }
+        return slice(query, pageable);
+    }
+
+    @Override
+    public Slice<Item> fuzzySearch(String text, LocalDateTime start, LocalDateTime end, Pageable pageable) {
+        if (postgreSql) {
+            // Порог оператора <% задается настройкой сессии; is_local = true ограничивает ее текущей транзакцией
+            entityManager.createNativeQuery("select set_config('pg_trgm.word_similarity_threshold', ?1, true)")
+                    .setParameter(1, String.valueOf(fuzzyThreshold))
+                    .getSingleResult();
+            return slice(nativeQuery(FUZZY_QUERY, start, end).setParameter("text", text), pageable);
+        }
+        // Без pg_trgm похожесть считается в приложении, а БД отбирает только вещи с общими триграммами
+        Set<Long> queryGrams = Trigrams.wordGrams(text);
+        List<String> patterns = fuzzyCandidatePatterns(text);
+        if (patterns.isEmpty()) {
+            return new SliceImpl<>(List.of(), pageable, false);
+        }
+        String grams = IntStream.range(0, patterns.size())
+                .mapToObj(n -> GRAM_MATCH.replace("{n}", String.valueOf(n)))
+                .collect(Collectors.joining(" or "));
+        String template = FUZZY_CANDIDATES_QUERY.replace(GRAMS, grams);
+        // Куча из keep лучших вещей, в вершине — худшая из них
+        Comparator<ScoredId> byScore = Comparator.comparingDouble(ScoredId::getScore).reversed()
+                .thenComparingLong(ScoredId::getId);
+        long keep = pageable.getOffset() + pageable.getPageSize() + 1L;
+        PriorityQueue<ScoredId> top = new PriorityQueue<>(byScore.reversed());
+        long lastId = 0;
+        List<Object[]> batch;
+        do {
+            TypedQuery<Object[]> candidates = query(template, Object[].class, start, end)
+                    .setParameter("lastId", lastId)
+                    .setMaxResults(FUZZY_BATCH_SIZE);
+            for (int n = 0; n < patterns.size(); n++) {
+                candidates.setParameter("gram" + n, patterns.get(n));
+            }
+            batch = candidates.getResultList();
+            for (Object[] row : batch) {
+                lastId = (Long) row[0];
+                double score = Math.max(Trigrams.similarity(queryGrams, Trigrams.wordGrams((String) row[1])),
+                        Trigrams.similarity(queryGrams, Trigrams.wordGrams((String) row[2])));
+                if (score > 0 && score >= fuzzyThreshold) {
+                    top.add(new ScoredId(lastId, score));
+                    if (top.size() > keep) {
+                        top.poll();
+                    }
+                }
+            }
+        } while (batch.size() == FUZZY_BATCH_SIZE);
+        List<Long> ids = top.stream()
+                .sorted(byScore)
+                .skip(pageable.getOffset())
+                .map(ScoredId::getId)
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return new SliceImpl<>(List.of(), pageable, false);
+        }
+        Map<Long, Item> byId = entityManager.createQuery(ITEMS_BY_IDS_QUERY, Item.class)
+                .setParameter("ids", ids)
+                .getResultStream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<Item> items = ids.stream().map(byId::get).collect(Collectors.toList());
+        return toSlice(items, pageable);
+    }
+
+    /**
+     * Шаблоны like для предварительного отбора. Вещь, похожая не меньше чем на порог, делит с запросом
+     * required из n триграмм, а значит, хотя бы одну из любых n - required + 1 триграмм: берутся
+     * самые избирательные, без пробелов дополнения. Пробелы отбрасываются, поэтому отбор шире, чем нужно,
+     * но не теряет подходящих вещей.
+     */
+    private List<String> fuzzyCandidatePatterns(String text) {
+        Set<String> grams = Trigrams.wordGramTexts(text);
+        int required = Math.max(1, (int) Math.ceil(fuzzyThreshold * grams.size() - 1e-9));
+        return grams.stream()
+                .map(String::strip)
+                .sorted(Comparator.comparingInt(String::length).reversed().thenComparing(Comparator.naturalOrder()))
+                .limit(Math.max(0, grams.size() - required + 1L))
+                .distinct()
+                .map(gram -> "%" + gram + "%")
+                .collect(Collectors.toList());
+    }
+
+    private TypedQuery<Item> query(String template, LocalDateTime start, LocalDateTime end) {
+        return query(template, Item.class, start, end);
+    }
+
+    private <T> TypedQuery<T> query(String template, Class<T> type, LocalDateTime start, LocalDateTime end) {
+        if (start == null) {
+            return entityManager.createQuery(template.replace(PERIOD, ""), type);
+        }
+        return entityManager.createQuery(template.replace(PERIOD, FREE_IN_PERIOD), type)
+                .setParameter("start", start)
+                .setParameter("end", end)
+                .setParameter("approved", BookingStatus.APPROVED);
+    }
+
+    private Query nativeQuery(String template, LocalDateTime start, LocalDateTime end) {
+        if (start == null) {
+            return entityManager.createNativeQuery(template.replace(PERIOD, ""), Item.class);
+        }
+        return entityManager.createNativeQuery(template.replace(PERIOD, FREE_IN_PERIOD_NATIVE), Item.class)
+                .setParameter("start", start)
+                .setParameter("end", end);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Slice<Item> slice(Query query, Pageable pageable) {
+        query.setFirstResult(Math.toIntExact(pageable.getOffset()));
+        query.setMaxResults(pageable.getPageSize() + 1);
+        return toSlice(query.getResultList(), pageable);
+    }
+
+    private static Slice<Item> toSlice(List<Item> items, Pageable pageable) {
+        boolean hasNext = items.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? items.subList(0, pageable.getPageSize()) : items, pageable, hasNext);
+    }
+
+    /**
+     * Превращает пользовательский текст в tsquery, где каждое слово ищется как префикс:
+     * "аккумулятор" находит "аккумуляторная". Все символы, кроме букв и цифр, отбрасываются,
+     * поэтому ввод пользователя не может нарушить синтаксис tsquery. Словоформы и стоп-слова
+     * обрабатывает конфигурация russian, "ё" заменяется на "е", как и в search_vector.
+     */
+    static String toPrefixTsQuery(String text) {
+        return Arrays.stream(RussianAnalyzer.normalize(text).split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .map(word -> word + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class ScoredId {
+
+        private final long id;
+        private final double score;
+    }
+
+    private static boolean isPostgreSql(DataSource dataSource) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return "PostgreSQL".equals(product);
+        } catch (MetaDataAccessException e) {
+            return false;
+        }
+    }
+}
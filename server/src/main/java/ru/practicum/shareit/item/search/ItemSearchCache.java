@@ -0,0 +1,251 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Кэш страниц поиска: нормализованный запрос и страница → id найденных вещей. Размер ограничен
+ * суммарным числом хранимых id (плюс единица на запись), вытесняются давно не запрошенные страницы (LRU),
+ * каждая запись живет не дольше ttl. Записи проиндексированы триграммами запроса, поэтому изменение вещи сбрасывает только те
+ * страницы, которые она могла бы пополнить или покинуть, а не весь кэш.
+ */
+@Component
+public class ItemSearchCache {
+
+    private static final long WILDCARD = -1;
+
+    private final long maxWeight;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Триграмма → записи, которые может затронуть вещь с такой триграммой. WILDCARD — записи по запросам,
+    // для которых нельзя выделить обязательную триграмму: их сбрасывает любое изменение
+    private final Map<Long, Set<Key>> substringKeys = new HashMap<>();
+    private final Map<Long, Set<Key>> fuzzyKeys = new HashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private long weight;
+    private long generation;
+
+    @Autowired
+    public ItemSearchCache(@Value("${shareit.search.cache.max-weight:100000}") long maxWeight,
+                           @Value("${shareit.search.cache.ttl:60s}") Duration ttl,
+                           MeterRegistry meterRegistry) {
+        this(maxWeight, ttl, System::nanoTime);
+        FunctionCounter.builder("shareit.search.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("shareit.search.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("shareit.search.cache.removals", evictions, LongAdder::sum)
+                .tag("cause", "size")
+                .register(meterRegistry);
+        FunctionCounter.builder("shareit.search.cache.removals", expirations, LongAdder::sum)
+                .tag("cause", "expired")
+                .register(meterRegistry);
+        FunctionCounter.builder("shareit.search.cache.removals", invalidations, LongAdder::sum)
+                .tag("cause", "invalidated")
+                .register(meterRegistry);
+        Gauge.builder("shareit.search.cache.size", this, ItemSearchCache::size)
+                .register(meterRegistry);
+        Gauge.builder("shareit.search.cache.weight", this, ItemSearchCache::weight)
+                .description("Вес записей кэша: число хранимых id плюс одна единица на запись")
+                .register(meterRegistry);
+    }
+
+    ItemSearchCache(long maxWeight, Duration ttl, LongSupplier clock) {
+        this.maxWeight = maxWeight;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * Ключ страницы поиска. Поиск со свободным периодом не кэшируется: его результат зависит еще и от
+     * бронирований и от текущего времени.
+     */
+    public static Key key(boolean fuzzy, String text, long offset, int size) {
+        return new Key(fuzzy, Trigrams.normalize(text).strip(), offset, size);
+    }
+
+    /**
+     * Id вещей страницы, если она есть в кэше.
+     */
+    public synchronized Optional<List<Long>> get(Key key) {
+        Entry entry = entries.get(key);
+        if (entry != null && clock.getAsLong() - entry.createdAt >= ttlNanos) {
+            remove(key);
+            expirations.increment();
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(entry.ids);
+    }
+
+    /**
+     * Поколение кэша до начала поиска: страница, найденная до изменения вещи, не должна попасть
+     * в кэш после сброса, поэтому {@link #put} с устаревшим поколением ничего не делает.
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Страница из пишущей транзакции не кэшируется: в нее могли попасть еще не закоммиченные изменения.
+     */
+    public synchronized void put(Key key, List<Long> ids, long generation) {
+        Entry entry = new Entry(List.copyOf(ids), clock.getAsLong());
+        boolean uncommitted = TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (uncommitted || generation != this.generation || entry.weight() > maxWeight) {
+            return;
+        }
+        remove(key);
+        entries.put(key, entry);
+        weight += entry.weight();
+        for (long token : tokens(key)) {
+            (key.isFuzzy() ? fuzzyKeys : substringKeys).computeIfAbsent(token, t -> new HashSet<>()).add(key);
+        }
+        Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+        while (weight > maxWeight) {
+            Map.Entry<Key, Entry> evicted = eldest.next();
+            eldest.remove();
+            unlink(evicted.getKey());
+            weight -= evicted.getValue().weight();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Сбрасывает страницы, на которые могла повлиять вещь: вызывается со старым и новым состоянием вещи.
+     */
+    public void invalidateAfterCommit(Item... items) {
+        AfterCommit.run(() -> invalidate(items));
+    }
+
+    synchronized void invalidate(Item... items) {
+        generation++;
+        Set<Key> stale = new HashSet<>();
+        collect(substringKeys, WILDCARD, stale);
+        collect(fuzzyKeys, WILDCARD, stale);
+        for (Item item : items) {
+            if (item == null) {
+                continue;
+            }
+            for (String field : List.of(item.getName(), item.getDescription())) {
+                Trigrams.substringGrams(Trigrams.normalize(field)).forEach(gram -> collect(substringKeys, gram, stale));
+                Trigrams.wordGrams(field).forEach(gram -> collect(fuzzyKeys, gram, stale));
+            }
+        }
+        for (Key key : stale) {
+            remove(key);
+            invalidations.increment();
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long weight() {
+        return weight;
+    }
+
+    private static void collect(Map<Long, Set<Key>> keys, long token, Collection<Key> target) {
+        Set<Key> found = keys.get(token);
+        if (found != null) {
+            target.addAll(found);
+        }
+    }
+
+    private void remove(Key key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            unlink(key);
+            weight -= entry.weight();
+        }
+    }
+
+    private void unlink(Key key) {
+        Map<Long, Set<Key>> keys = key.isFuzzy() ? fuzzyKeys : substringKeys;
+        for (long token : tokens(key)) {
+            Set<Key> tokenKeys = keys.get(token);
+            if (tokenKeys != null) {
+                tokenKeys.remove(key);
+                if (tokenKeys.isEmpty()) {
+                    keys.remove(token);
+                }
+            }
+        }
+    }
+
+    /**
+     * Триграммы, хотя бы одна из которых обязательно есть у любой вещи, попавшей в результат запроса.
+     * Подстрочное совпадение содержит все триграммы запроса. Совпадение по словоформе содержит основу
+     * каждого слова запроса, а основа — начало этого слова, так что при основе от трех букв ее первая
+     * триграмма тоже среди триграмм запроса. Нечеткое совпадение невозможно без общей триграммы слов.
+     */
+    private static Set<Long> tokens(Key key) {
+        if (key.isFuzzy()) {
+            Set<Long> grams = Trigrams.wordGrams(key.getQuery());
+            return grams.isEmpty() ? Set.of(WILDCARD) : grams;
+        }
+        Set<Long> grams = Trigrams.substringGrams(key.getQuery());
+        List<String> terms = RussianAnalyzer.analyze(key.getQuery());
+        boolean shortStems = !terms.isEmpty() && terms.stream().allMatch(term -> term.length() < Trigrams.GRAM);
+        return grams.isEmpty() || shortStems ? Set.of(WILDCARD) : grams;
+    }
+
+    @Getter
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    public static final class Key {
+        private final boolean fuzzy;
+        private final String query;
+        private final long offset;
+        private final int size;
+    }
+
+    private static final class Entry {
+        private final List<Long> ids;
+        private final long createdAt;
+
+        Entry(List<Long> ids, long createdAt) {
+            this.ids = ids;
+            this.createdAt = createdAt;
+        }
+
+        long weight() {
+            return ids.size() + 1L;
+        }
+    }
+}
@@ -0,0 +1,417 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
+
+/**
+ * Инвертированный индекс триграмм по названию и описанию вещей. Кандидаты получаются пересечением
+ * списков вещей для всех триграмм запроса и затем проверяются подстрочным сравнением, поэтому результат
+ * совпадает с поиском через like. Дополнительно хранятся основы слов (см. {@link RussianAnalyzer}), чтобы
+ * находить другие словоформы, и триграммы слов в формате pg_trgm для нечеткого поиска.
+ * Индекс локален для узла и включается свойством shareit.search.engine=memory; пока он не построен,
+ * поиск идет в БД.
+ */
+@Component
+@Slf4j
+public class ItemSearchIndex {
+
+    private static final int LOAD_PAGE_SIZE = 1000;
+    private static final double BM25_K1 = 1.2;
+    private static final double BM25_B = 0.75;
+    private static final int MAX_FREQUENCY = 0x7FFF;
+    private static final Comparator<ScoredItem> BY_SCORE = Comparator
+            .comparingDouble(ScoredItem::getScore).reversed()
+            .thenComparingLong(ScoredItem::getId);
+
+    private static final LongPostingList EMPTY = new LongPostingList();
+
+    private final ItemRepository itemRepository;
+    private final boolean enabled;
+    private final double fuzzyThreshold;
+    private final double nameBoost;
+    private final Map<Long, LongPostingList> postings = new HashMap<>();
+    private final Map<Long, LongPostingList> wordPostings = new HashMap<>();
+    private final Map<String, LongPostingList> termPostings = new HashMap<>();
+    private long totalNameLength;
+    private long totalDescriptionLength;
+    private final Map<Long, IndexedItem> documents = new HashMap<>();
+    // Id всех документов по возрастанию: кандидаты для запроса короче триграммы
+    private final LongPostingList documentIds = new LongPostingList();
+    private final Queue<Item> pending = new ConcurrentLinkedQueue<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    public ItemSearchIndex(ItemRepository itemRepository,
+                           @Value("${shareit.search.engine:database}") String engine,
+                           @Value("${shareit.search.fuzzy-threshold:0.3}") double fuzzyThreshold,
+                           @Value("${shareit.search.name-boost:2.0}") double nameBoost) {
+        this.itemRepository = itemRepository;
+        this.enabled = "memory".equalsIgnoreCase(engine);
+        this.fuzzyThreshold = fuzzyThreshold;
+        this.nameBoost = nameBoost;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!enabled) {
+            return;
+        }
+        int count = 0;
+        // Страницы читаются по ключу (id > последнего прочитанного), а не через offset,
+        // который заставляет БД заново пропускать все уже загруженные строки
+        List<Item> items = itemRepository.findAllAfter(0L, PageRequest.of(0, LOAD_PAGE_SIZE));
+        while (!items.isEmpty()) {
+            lock.writeLock().lock();
+            try {
+                items.forEach(this::put);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            count += items.size();
+            long lastId = items.get(items.size() - 1).getId();
+            items = itemRepository.findAllAfter(lastId, PageRequest.of(0, LOAD_PAGE_SIZE));
+        }
+        lock.writeLock().lock();
+        try {
+            // Изменения, закоммиченные во время загрузки, могли не попасть в прочитанные страницы
+            for (Item item = pending.poll(); item != null; item = pending.poll()) {
+                put(item);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Поисковый индекс вещей построен: {} вещей, {} триграмм, {} триграмм слов, {} основ слов",
+                count, postings.size(), wordPostings.size(), termPostings.size());
+    }
+
+    /**
+     * Индексирует вещь после коммита текущей транзакции, чтобы откаченные изменения не попали в поиск.
+     */
+    public void indexAfterCommit(Item item) {
+        if (!enabled) {
+            return;
+        }
+        Item snapshot = item.toBuilder().build();
+        AfterCommit.run(() -> index(snapshot));
+    }
+
+    public void index(Item item) {
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                pending.add(item);
+            }
+            put(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Доступные вещи, в названии или описании которых встречается текст либо все слова запроса
+     * с точностью до словоформы (см. {@link RussianAnalyzer}), от самых релевантных по BM25F:
+     * совпадение в названии весит в shareit.search.name-boost раз больше, чем в описании.
+     * Вещи, найденные только по подстроке, идут после них в порядке id.
+     */
+    public List<Item> search(String text, Pageable pageable) {
+        return search(text, id -> true, pageable);
+    }
+
+    /**
+     * То же, но только среди вещей, id которых проходят фильтр, например свободных в нужный период.
+     */
+    public List<Item> search(String text, LongPredicate itemFilter, Pageable pageable) {
+        String query = Trigrams.normalize(text);
+        List<String> terms = RussianAnalyzer.analyze(text).stream().distinct().collect(Collectors.toList());
+        long skip = pageable.isPaged() ? pageable.getOffset() : 0;
+        int keep = pageable.isPaged() ? Math.toIntExact(skip + pageable.getPageSize()) : Integer.MAX_VALUE;
+        PriorityQueue<ScoredItem> top = new PriorityQueue<>(BY_SCORE.reversed());
+        lock.readLock().lock();
+        try {
+            LongPostingList matches = LongPostingList.union(substringMatches(query), termMatches(terms));
+            for (int i = 0; i < matches.size(); i++) {
+                long id = matches.get(i);
+                IndexedItem document = documents.get(id);
+                if (!Boolean.TRUE.equals(document.item.getAvailable()) || !itemFilter.test(id)) {
+                    continue;
+                }
+                top.add(new ScoredItem(id, 0, bm25(document, id, terms), document.item));
+                if (top.size() > keep) {
+                    top.poll();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<ScoredItem> scored = new ArrayList<>(top);
+        scored.sort(BY_SCORE);
+        return scored.stream()
+                .skip(skip)
+                .map(item -> item.getItem().toBuilder().build())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Доступные вещи, похожие на текст не меньше чем на shareit.search.fuzzy-threshold
+     * (см. {@link Trigrams#similarity}), от самых похожих к менее похожим.
+     */
+    public List<Item> fuzzySearch(String text, Pageable pageable) {
+        return fuzzySearch(text, id -> true, pageable);
+    }
+
+    public List<Item> fuzzySearch(String text, LongPredicate itemFilter, Pageable pageable) {
+        Set<Long> queryGrams = Trigrams.wordGrams(text);
+        if (queryGrams.isEmpty()) {
+            return List.of();
+        }
+        long skip = pageable.isPaged() ? pageable.getOffset() : 0;
+        int keep = pageable.isPaged() ? Math.toIntExact(skip + pageable.getPageSize()) : Integer.MAX_VALUE;
+        // Куча из keep лучших результатов, в вершине — худший из них
+        PriorityQueue<ScoredItem> top = new PriorityQueue<>(BY_SCORE.reversed());
+        lock.readLock().lock();
+        try {
+            LongPostingList[] lists = queryGrams.stream()
+                    .map(gram -> wordPostings.getOrDefault(gram, EMPTY))
+                    .sorted(Comparator.comparingInt(LongPostingList::size))
+                    .toArray(LongPostingList[]::new);
+            // Вещь с нужной долей общих триграмм обязательно встречается хотя бы в одном из самых коротких
+            // списков (prefix filtering): их сливаем, а длинные списки частых триграмм только проверяем.
+            // Когда куча заполнена, следующей вещи нужно больше общих триграмм, чем у худшей в куче
+            // (при равенстве выигрывает меньший id, а id растут), и сливаемых списков становится меньше.
+            int required = Math.max(1, (int) Math.ceil(fuzzyThreshold * lists.length));
+            int prefix = lists.length - required + 1;
+            int[] cursors = new int[prefix];
+            while (prefix > 0) {
+                long id = Long.MAX_VALUE;
+                for (int i = 0; i < prefix; i++) {
+                    if (cursors[i] < lists[i].size()) {
+                        id = Math.min(id, lists[i].get(cursors[i]));
+                    }
+                }
+                if (id == Long.MAX_VALUE) {
+                    break;
+                }
+                int shared = 0;
+                for (int i = 0; i < prefix; i++) {
+                    if (cursors[i] < lists[i].size() && lists[i].get(cursors[i]) == id) {
+                        cursors[i]++;
+                        shared++;
+                    }
+                }
+                for (int i = prefix; i < lists.length && shared + lists.length - i >= required; i++) {
+                    if (lists[i].contains(id)) {
+                        shared++;
+                    }
+                }
+                if (shared < required) {
+                    continue;
+                }
+                IndexedItem document = documents.get(id);
+                if (!Boolean.TRUE.equals(document.item.getAvailable()) || !itemFilter.test(id)) {
+                    continue;
+                }
+                top.add(new ScoredItem(id, shared, (double) shared / lists.length, document.item));
+                if (top.size() > keep) {
+                    top.poll();
+                }
+                if (top.size() == keep) {
+                    required = Math.max(required, top.peek().getShared() + 1);
+                    prefix = lists.length - required + 1;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<ScoredItem> scored = new ArrayList<>(top);
+        scored.sort(BY_SCORE);
+        return scored.stream()
+                .skip(skip)
+                .map(item -> item.getItem().toBuilder().build())
+                .collect(Collectors.toList());
+    }
+
+    private LongPostingList substringMatches(String query) {
+        LongPostingList candidates;
+        if (query.length() < Trigrams.GRAM) {
+            candidates = documentIds;
+        } else {
+            List<LongPostingList> lists = new ArrayList<>();
+            for (long gram : Trigrams.substringGrams(query)) {
+                lists.add(postings.getOrDefault(gram, EMPTY));
+            }
+            candidates = LongPostingList.intersection(lists);
+        }
+        LongPostingList matches = new LongPostingList();
+        for (int i = 0; i < candidates.size(); i++) {
+            if (documents.get(candidates.get(i)).contains(query)) {
+                matches.append(candidates.get(i));
+            }
+        }
+        return matches;
+    }
+
+    private LongPostingList termMatches(List<String> terms) {
+        if (terms.isEmpty()) {
+            return EMPTY;
+        }
+        List<LongPostingList> lists = new ArrayList<>();
+        for (String term : terms) {
+            lists.add(termPostings.getOrDefault(term, EMPTY));
+        }
+        return LongPostingList.intersection(lists);
+    }
+
+    /**
+     * BM25F: частоты терма в названии и описании нормируются на длину своего поля и складываются
+     * с весом названия, после чего насыщаются как в обычном BM25.
+     */
+    private double bm25(IndexedItem document, long id, List<String> terms) {
+        double averageName = Math.max(1.0, (double) totalNameLength / documents.size());
+        double averageDescription = Math.max(1.0, (double) totalDescriptionLength / documents.size());
+        double score = 0;
+        for (String term : terms) {
+            LongPostingList list = termPostings.get(term);
+            int frequencies = list == null ? 0 : list.payloadOf(id);
+            if (frequencies == 0) {
+                continue;
+            }
+            double frequency = nameBoost * (frequencies >>> 16)
+                    / (1 - BM25_B + BM25_B * document.nameLength / averageName)
+                    + (frequencies & 0xFFFF)
+                    / (1 - BM25_B + BM25_B * document.descriptionLength / averageDescription);
+            double idf = Math.log(1 + (documents.size() - list.size() + 0.5) / (list.size() + 0.5));
+            score += idf * frequency * (BM25_K1 + 1) / (frequency + BM25_K1);
+        }
+        return score;
+    }
+
+    private void put(Item item) {
+        IndexedItem previous = documents.remove(item.getId());
+        if (previous != null) {
+            // Триграммы не хранятся в документе, чтобы не держать в памяти миллионы Long: считаем их заново
+            unlink(postings, previous.substringGrams(), item.getId());
+            unlink(wordPostings, previous.wordGrams(), item.getId());
+            unlink(termPostings, previous.termFrequencies().keySet(), item.getId());
+            totalNameLength -= previous.nameLength;
+            totalDescriptionLength -= previous.descriptionLength;
+        }
+        IndexedItem document = new IndexedItem(item);
+        link(postings, document.substringGrams(), item.getId());
+        link(wordPostings, document.wordGrams(), item.getId());
+        document.termFrequencies().forEach((term, frequencies) -> termPostings
+                .computeIfAbsent(term, t -> LongPostingList.withPayloads())
+                .add(item.getId(), frequencies));
+        totalNameLength += document.nameLength;
+        totalDescriptionLength += document.descriptionLength;
+        documents.put(item.getId(), document);
+        documentIds.add(item.getId());
+    }
+
+    private static <K> void link(Map<K, LongPostingList> postings, Set<K> keys, long id) {
+        for (K key : keys) {
+            postings.computeIfAbsent(key, k -> new LongPostingList()).add(id);
+        }
+    }
+
+    private static <K> void unlink(Map<K, LongPostingList> postings, Set<K> keys, long id) {
+        for (K key : keys) {
+            LongPostingList list = postings.get(key);
+            if (list != null) {
+                list.remove(id);
+                if (list.isEmpty()) {
+                    postings.remove(key);
+                }
+            }
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class ScoredItem {
+
+        private final long id;
+        private final int shared;
+        private final double score;
+        private final Item item;
+    }
+
+    private static class IndexedItem {
+
+        private final Item item;
+        private final String name;
+        private final String description;
+        private final int nameLength;
+        private final int descriptionLength;
+
+        IndexedItem(Item item) {
+            this.item = item;
+            this.name = Trigrams.normalize(item.getName());
+            this.description = Trigrams.normalize(item.getDescription());
+            this.nameLength = RussianAnalyzer.analyze(name).size();
+            this.descriptionLength = RussianAnalyzer.analyze(description).size();
+        }
+
+        Set<Long> substringGrams() {
+            Set<Long> grams = Trigrams.substringGrams(name);
+            grams.addAll(Trigrams.substringGrams(description));
+            return grams;
+        }
+
+        Set<Long> wordGrams() {
+            Set<Long> grams = Trigrams.wordGrams(name);
+            grams.addAll(Trigrams.wordGrams(description));
+            return grams;
+        }
+
+        boolean contains(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        /**
+         * Частоты термов: в старших 16 битах — в названии, в младших — в описании.
+         * Каждая частота ограничена 0x7FFF, чтобы поля не перетекали друг в друга.
+         */
+        Map<String, Integer> termFrequencies() {
+            Map<String, Integer> names = count(RussianAnalyzer.analyze(name));
+            Map<String, Integer> frequencies = new HashMap<>();
+            names.forEach((term, count) -> frequencies.put(term, Math.min(count, MAX_FREQUENCY) << 16));
+            count(RussianAnalyzer.analyze(description)).forEach((term, count) ->
+                    frequencies.merge(term, Math.min(count, MAX_FREQUENCY), Integer::sum));
+            return frequencies;
+        }
+
+        private static Map<String, Integer> count(List<String> terms) {
+            Map<String, Integer> counts = new HashMap<>();
+            terms.forEach(term -> counts.merge(term, 1, Integer::sum));
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Префиксное дерево названий доступных вещей для автодополнения. В каждом узле хранится готовый список
+ * MAX_SUGGESTIONS самых частых названий поддерева, поэтому ответ на запрос — спуск по префиксу, O(длина префикса).
+ * При изменении вещи списки пересчитываются только на пути от корня до ее названия.
+ * Как и {@link ItemSearchIndex}, включается свойством shareit.search.engine=memory; иначе подсказки берутся из БД.
+ */
+@Component
+@Slf4j
+public class ItemSuggestIndex {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private static final int LOAD_PAGE_SIZE = 1000;
+    private static final Comparator<Suggestion> BY_COUNT = Comparator
+            .comparingInt(Suggestion::getCount).reversed()
+            .thenComparing(Suggestion::getKey);
+
+    private final ItemRepository itemRepository;
+    private final boolean enabled;
+    private final Node root = new Node();
+    private final Map<Long, IndexedName> names = new HashMap<>();
+    private final Queue<Item> pending = new ConcurrentLinkedQueue<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    public ItemSuggestIndex(ItemRepository itemRepository,
+                            @Value("${shareit.search.engine:database}") String engine) {
+        this.itemRepository = itemRepository;
+        this.enabled = "memory".equalsIgnoreCase(engine);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!enabled) {
+            return;
+        }
+        List<Item> items = itemRepository.findAllAfter(0L, PageRequest.of(0, LOAD_PAGE_SIZE));
+        while (!items.isEmpty()) {
+            lock.writeLock().lock();
+            try {
+                items.forEach(item -> put(item, false));
+            } finally {
+                lock.writeLock().unlock();
+            }
+            long lastId = items.get(items.size() - 1).getId();
+            items = itemRepository.findAllAfter(lastId, PageRequest.of(0, LOAD_PAGE_SIZE));
+        }
+        lock.writeLock().lock();
+        try {
+            for (Item item = pending.poll(); item != null; item = pending.poll()) {
+                put(item, false);
+            }
+            // Списки лучших названий при загрузке считаются один раз снизу вверх, а не на каждую вещь
+            root.refreshAll();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Индекс автодополнения построен: {} вещей", names.size());
+    }
+
+    public void indexAfterCommit(Item item) {
+        if (!enabled) {
+            return;
+        }
+        Item snapshot = item.toBuilder().build();
+        AfterCommit.run(() -> index(snapshot));
+    }
+
+    public void index(Item item) {
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                pending.add(item);
+            }
+            put(item, ready);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Названия доступных вещей, начинающиеся с префикса без учета регистра, от самых частых.
+     */
+    public List<String> suggest(String prefix, int size) {
+        String key = RussianAnalyzer.normalize(prefix).strip();
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+            return Arrays.stream(node.top)
+                    .limit(Math.min(size, MAX_SUGGESTIONS))
+                    .map(Suggestion::getName)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Число узлов дерева вместе с корнем.
+     */
+    int nodeCount() {
+        lock.readLock().lock();
+        try {
+            return root.nodeCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(Item item, boolean refresh) {
+        IndexedName previous = names.remove(item.getId());
+        if (previous != null && previous.available) {
+            add(previous.key, previous.name, -1, refresh);
+        }
+        IndexedName current = new IndexedName(item);
+        names.put(item.getId(), current);
+        if (current.available) {
+            add(current.key, current.name, 1, refresh);
+        }
+    }
+
+    private void add(String key, String name, int delta, boolean refresh) {
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            path[i + 1] = path[i].childOrCreate(key.charAt(i));
+        }
+        Node terminal = path[key.length()];
+        terminal.count += delta;
+        if (delta > 0) {
+            terminal.name = name;
+        } else if (terminal.count == 0) {
+            terminal.name = null;
+        }
+        // Узлы без названий и потомков удаляются снизу вверх, чтобы дерево не росло от переименований
+        int depth = key.length();
+        while (depth > 0 && path[depth].isEmpty()) {
+            path[depth - 1].removeChild(key.charAt(depth - 1));
+            depth--;
+        }
+        if (refresh) {
+            for (int i = depth; i >= 0; i--) {
+                path[i].refresh(key.substring(0, i));
+            }
+        }
+    }
+
+    /**
+     * Узел дерева. Дочерние узлы хранятся в отсортированных массивах, а не в Map: у большинства узлов
+     * один-два потомка.
+     */
+    private static class Node {
+
+        private static final Suggestion[] NONE = new Suggestion[0];
+
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private int count;
+        private String name;
+        private Suggestion[] top = NONE;
+
+        Node child(char key) {
+            int position = Arrays.binarySearch(keys, key);
+            return position >= 0 ? children[position] : null;
+        }
+
+        Node childOrCreate(char key) {
+            int position = Arrays.binarySearch(keys, key);
+            if (position >= 0) {
+                return children[position];
+            }
+            position = -position - 1;
+            Node child = new Node();
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, position);
+            System.arraycopy(children, 0, newChildren, 0, position);
+            newKeys[position] = key;
+            newChildren[position] = child;
+            System.arraycopy(keys, position, newKeys, position + 1, keys.length - position);
+            System.arraycopy(children, position, newChildren, position + 1, children.length - position);
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+
+        void removeChild(char key) {
+            int position = Arrays.binarySearch(keys, key);
+            if (position < 0) {
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, position);
+            System.arraycopy(children, 0, newChildren, 0, position);
+            System.arraycopy(keys, position + 1, newKeys, position, keys.length - position - 1);
+            System.arraycopy(children, position + 1, newChildren, position, children.length - position - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        boolean isEmpty() {
+            return count == 0 && children.length == 0;
+        }
+
+        int nodeCount() {
+            int nodes = 1;
+            for (Node child : children) {
+                nodes += child.nodeCount();
+            }
+            return nodes;
+        }
+
+        void refreshAll() {
+            refreshAll(new StringBuilder());
+        }
+
+        private void refreshAll(StringBuilder key) {
+            for (int i = 0; i < children.length; i++) {
+                key.append(keys[i]);
+                children[i].refreshAll(key);
+                key.setLength(key.length() - 1);
+            }
+            refresh(key.toString());
+        }
+
+        void refresh(String key) {
+            List<Suggestion> candidates = new ArrayList<>();
+            if (count > 0) {
+                candidates.add(new Suggestion(key, name, count));
+            }
+            for (Node child : children) {
+                candidates.addAll(Arrays.asList(child.top));
+            }
+            candidates.sort(BY_COUNT);
+            top = candidates.stream().limit(MAX_SUGGESTIONS).toArray(Suggestion[]::new);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Suggestion {
+
+        private final String key;
+        private final String name;
+        private final int count;
+    }
+
+    private static class IndexedName {
+
+        private final String key;
+        private final String name;
+        private final boolean available;
+
+        IndexedName(Item item) {
+            this.name = item.getName().strip();
+            this.key = RussianAnalyzer.normalize(name);
+            this.available = Boolean.TRUE.equals(item.getAvailable());
+        }
+    }
+}
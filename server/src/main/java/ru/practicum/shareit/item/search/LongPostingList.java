@@ -0,0 +1,138 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Отсортированный по возрастанию список id без упаковки в Long: 8 байт на вхождение
+ * и двоичный поиск для пересечения списков. Список, созданный через {@link #withPayloads()},
+ * хранит рядом с каждым id число, например частоты терма в полях вещи.
+ */
+class LongPostingList {
+
+    private long[] ids = new long[4];
+    private int[] payloads;
+    private int size;
+
+    static LongPostingList withPayloads() {
+        LongPostingList list = new LongPostingList();
+        list.payloads = new int[list.ids.length];
+        return list;
+    }
+
+    boolean add(long id) {
+        return add(id, 0);
+    }
+
+    boolean add(long id, int payload) {
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position >= 0) {
+            return false;
+        }
+        position = -position - 1;
+        grow();
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        ids[position] = id;
+        if (payloads != null) {
+            System.arraycopy(payloads, position, payloads, position + 1, size - position);
+            payloads[position] = payload;
+        }
+        size++;
+        return true;
+    }
+
+    boolean remove(long id) {
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position < 0) {
+            return false;
+        }
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        if (payloads != null) {
+            System.arraycopy(payloads, position + 1, payloads, position, size - position - 1);
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Число, сохраненное для id, или 0, если id нет в списке.
+     */
+    int payloadOf(long id) {
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        return position >= 0 && payloads != null ? payloads[position] : 0;
+    }
+
+    boolean contains(long id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    long get(int index) {
+        return ids[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Добавляет id больше всех имеющихся, без поиска позиции.
+     */
+    void append(long id) {
+        grow();
+        ids[size++] = id;
+    }
+
+    private void grow() {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            if (payloads != null) {
+                payloads = Arrays.copyOf(payloads, size * 2);
+            }
+        }
+    }
+
+    static LongPostingList union(LongPostingList first, LongPostingList second) {
+        LongPostingList union = new LongPostingList();
+        int i = 0;
+        int j = 0;
+        while (i < first.size || j < second.size) {
+            long id;
+            if (j == second.size || i < first.size && first.ids[i] < second.ids[j]) {
+                id = first.ids[i++];
+            } else if (i == first.size || second.ids[j] < first.ids[i]) {
+                id = second.ids[j++];
+            } else {
+                id = first.ids[i++];
+                j++;
+            }
+            union.append(id);
+        }
+        return union;
+    }
+
+    /**
+     * Пересечение списков: перебираются id самого короткого, остальные проверяются двоичным поиском.
+     */
+    static LongPostingList intersection(List<LongPostingList> lists) {
+        LongPostingList intersection = new LongPostingList();
+        if (lists.isEmpty()) {
+            return intersection;
+        }
+        List<LongPostingList> sorted = new ArrayList<>(lists);
+        sorted.sort(Comparator.comparingInt(LongPostingList::size));
+        LongPostingList smallest = sorted.get(0);
+        for (int i = 0; i < smallest.size; i++) {
+            long id = smallest.ids[i];
+            if (sorted.stream().skip(1).allMatch(list -> list.contains(id))) {
+                intersection.append(id);
+            }
+        }
+        return intersection;
+    }
+}
@@ -0,0 +1,162 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Разбор текста на термы для поиска: нижний регистр, ё → е, удаление стоп-слов и стемминг
+ * по алгоритму Snowball для русского языка. Одинаково применяется при индексации и к запросу,
+ * поэтому "дрель" и "дрели" дают один терм "дрел".
+ */
+public final class RussianAnalyzer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "а", "без", "бы", "в", "во", "вот", "все", "вы", "да", "для", "до", "его", "ее", "ей", "если", "еще",
+            "же", "за", "и", "из", "или", "им", "их", "к", "как", "ко", "ли", "мне", "мы", "на", "над", "не", "нет",
+            "но", "о", "об", "он", "она", "они", "от", "по", "под", "при", "с", "со", "так", "то", "только", "ты",
+            "у", "уже", "что", "это", "эта", "этот", "эти", "я");
+    private static final String VOWELS = "аеиоуыэюя";
+
+    private static final String[] PERFECTIVE_GERUND_1 = endings("в", "вши", "вшись");
+    private static final String[] PERFECTIVE_GERUND_2 = endings("ив", "ивши", "ившись", "ыв", "ывши", "ывшись");
+    private static final String[] ADJECTIVE = endings("ее", "ие", "ые", "ое", "ими", "ыми", "ей", "ий", "ый", "ой",
+            "ем", "им", "ым", "ом", "его", "ого", "ему", "ому", "их", "ых", "ую", "юю", "ая", "яя", "ою", "ею");
+    private static final String[] PARTICIPLE_1 = endings("ем", "нн", "вш", "ющ", "щ");
+    private static final String[] PARTICIPLE_2 = endings("ивш", "ывш", "ующ");
+    private static final String[] REFLEXIVE = endings("ся", "сь");
+    private static final String[] VERB_1 = endings("ла", "на", "ете", "йте", "ли", "й", "л", "ем", "н", "ло", "но",
+            "ет", "ют", "ны", "ть", "ешь", "нно");
+    private static final String[] VERB_2 = endings("ила", "ыла", "ена", "ейте", "уйте", "ите", "или", "ыли", "ей",
+            "уй", "ил", "ыл", "им", "ым", "ен", "ило", "ыло", "ено", "ят", "ует", "уют", "ит", "ыт", "ены", "ить",
+            "ыть", "ишь", "ую", "ю");
+    private static final String[] NOUN = endings("а", "ев", "ов", "ие", "ье", "е", "иями", "ями", "ами", "еи", "ии",
+            "и", "ией", "ей", "ой", "ий", "й", "иям", "ям", "ием", "ем", "ам", "ом", "о", "у", "ах", "иях", "ях", "ы",
+            "ь", "ию", "ью", "ю", "ия", "ья", "я");
+    private static final String[] SUPERLATIVE = endings("ейш", "ейше");
+    private static final String[] DERIVATIONAL = endings("ост", "ость");
+
+    private RussianAnalyzer() {
+    }
+
+    public static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+    }
+
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        for (String word : normalize(text).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty() && !STOP_WORDS.contains(word)) {
+                terms.add(stem(word));
+            }
+        }
+        return terms;
+    }
+
+    static String stem(String word) {
+        int rv = word.length();
+        for (int i = 0; i < word.length(); i++) {
+            if (isVowel(word.charAt(i))) {
+                rv = i + 1;
+                break;
+            }
+        }
+        int r2 = region(word, region(word, 0));
+        StringBuilder stem = new StringBuilder(word);
+        // Шаг 1: деепричастие, иначе возвратная частица и окончание прилагательного, глагола или существительного
+        if (!removeGrouped(stem, rv, PERFECTIVE_GERUND_1, PERFECTIVE_GERUND_2)) {
+            remove(stem, rv, REFLEXIVE);
+            if (remove(stem, rv, ADJECTIVE)) {
+                removeGrouped(stem, rv, PARTICIPLE_1, PARTICIPLE_2);
+            } else if (!removeGrouped(stem, rv, VERB_1, VERB_2)) {
+                remove(stem, rv, NOUN);
+            }
+        }
+        // Шаг 2
+        remove(stem, rv, "и");
+        // Шаг 3: словообразовательный суффикс в R2
+        remove(stem, r2, DERIVATIONAL);
+        // Шаг 4: двойное "н", превосходная степень, мягкий знак
+        if (endsWithInRegion(stem, rv, "нн")) {
+            stem.setLength(stem.length() - 1);
+        } else if (remove(stem, rv, SUPERLATIVE)) {
+            if (endsWithInRegion(stem, rv, "нн")) {
+                stem.setLength(stem.length() - 1);
+            }
+        } else {
+            remove(stem, rv, "ь");
+        }
+        return stem.toString();
+    }
+
+    /**
+     * Начало области после первой согласной, следующей за гласной, начиная с позиции from (R1 и R2 алгоритма).
+     */
+    private static int region(String word, int from) {
+        for (int i = from + 1; i < word.length(); i++) {
+            if (!isVowel(word.charAt(i)) && isVowel(word.charAt(i - 1))) {
+                return i + 1;
+            }
+        }
+        return word.length();
+    }
+
+    private static boolean remove(StringBuilder stem, int region, String... endings) {
+        for (String ending : endings) {
+            if (endsWithInRegion(stem, region, ending)) {
+                stem.setLength(stem.length() - ending.length());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Окончания первой группы удаляются, только если перед ними стоит "а" или "я".
+     */
+    private static boolean removeGrouped(StringBuilder stem, int region, String[] afterAOrYa, String[] others) {
+        String best = null;
+        for (String ending : afterAOrYa) {
+            int start = stem.length() - ending.length();
+            if (endsWithInRegion(stem, region, ending) && start - 1 >= region
+                    && (stem.charAt(start - 1) == 'а' || stem.charAt(start - 1) == 'я')) {
+                best = ending;
+                break;
+            }
+        }
+        for (String ending : others) {
+            if (endsWithInRegion(stem, region, ending)) {
+                if (best == null || ending.length() > best.length()) {
+                    best = ending;
+                }
+                break;
+            }
+        }
+        if (best == null) {
+            return false;
+        }
+        stem.setLength(stem.length() - best.length());
+        return true;
+    }
+
+    private static boolean endsWithInRegion(StringBuilder stem, int region, String ending) {
+        int start = stem.length() - ending.length();
+        return start >= region && stem.indexOf(ending, start) == start;
+    }
+
+    private static boolean isVowel(char c) {
+        return VOWELS.indexOf(c) >= 0;
+    }
+
+    /**
+     * Окончания от длинных к коротким: удаляется самое длинное подходящее.
+     */
+    private static String[] endings(String... endings) {
+        String[] sorted = Arrays.copyOf(endings, endings.length);
+        Arrays.sort(sorted, Comparator.comparingInt(String::length).reversed());
+        return sorted;
+    }
+}
@@ -0,0 +1,81 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Триграммы, упакованные в long по 16 бит на символ.
+ */
+public final class Trigrams {
+
+    static final int GRAM = 3;
+
+    private Trigrams() {
+    }
+
+    public static String normalize(String text) {
+        return RussianAnalyzer.normalize(text);
+    }
+
+    /**
+     * Все подстроки длины три: по ним отбираются кандидаты для подстрочного поиска.
+     */
+    static Set<Long> substringGrams(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(pack(text.charAt(i), text.charAt(i + 1), text.charAt(i + 2)));
+        }
+        return grams;
+    }
+
+    /**
+     * Триграммы слов, как в pg_trgm: слово дополняется двумя пробелами в начале и одним в конце,
+     * поэтому даже короткое слово с опечаткой сохраняет общие триграммы с правильным написанием.
+     */
+    public static Set<Long> wordGrams(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (String word : normalize(text).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + GRAM <= padded.length(); i++) {
+                grams.add(pack(padded.charAt(i), padded.charAt(i + 1), padded.charAt(i + 2)));
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * Те же триграммы слов строками, с пробелами дополнения: по ним строится предварительный отбор в SQL.
+     */
+    public static Set<String> wordGramTexts(String text) {
+        Set<String> grams = new HashSet<>();
+        for (String word : normalize(text).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + GRAM <= padded.length(); i++) {
+                grams.add(padded.substring(i, i + GRAM));
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * Доля триграмм запроса, найденных в тексте: 1 — все слова запроса есть в тексте,
+     * около 0.3 — слово написано с одной-двумя опечатками.
+     */
+    public static double similarity(Set<Long> queryGrams, Set<Long> textGrams) {
+        if (queryGrams.isEmpty()) {
+            return 0;
+        }
+        long shared = queryGrams.stream().filter(textGrams::contains).count();
+        return (double) shared / queryGrams.size();
+    }
+
+    private static long pack(char first, char second, char third) {
+        return ((long) first << 32) | ((long) second << 16) | third;
+    }
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.service;
+
+import ru.practicum.shareit.item.model.ItemBookingPointer;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface ItemBookingPointerService {
+
+    Map<Long, ItemBookingPointer> getPointers(Collection<Long> itemIds);
+
+    void refresh(Collection<Long> itemIds);
+
+    void sweep();
+
+    void rebuild();
+}
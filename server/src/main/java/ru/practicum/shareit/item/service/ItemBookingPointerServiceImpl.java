@@ -0,0 +1,98 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.ItemBookingPointer;
+import ru.practicum.shareit.item.repository.ItemBookingPointerRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@AllArgsConstructor
+@Slf4j
+public class ItemBookingPointerServiceImpl implements ItemBookingPointerService {
+
+    private final ItemBookingPointerRepository itemBookingPointerRepository;
+    private final BookingRepository bookingRepository;
+
+    @Transactional(readOnly = true)
+    @Override
+    public Map<Long, ItemBookingPointer> getPointers(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Map.of();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, ItemBookingPointer> pointers = new HashMap<>();
+        List<Long> staleItemIds = new ArrayList<>();
+        for (ItemBookingPointer pointer : itemBookingPointerRepository.findAllById(itemIds)) {
+            if (pointer.isStale(now)) {
+                staleItemIds.add(pointer.getItemId());
+            } else {
+                pointers.put(pointer.getItemId(), pointer);
+            }
+        }
+        // Следующее бронирование уже началось, а sweep еще не отработал: считаем указатели на лету
+        pointers.putAll(resolve(staleItemIds, now));
+        return pointers;
+    }
+
+    @Transactional
+    @Override
+    public void refresh(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        Map<Long, ItemBookingPointer> pointers = resolve(itemIds, LocalDateTime.now());
+        List<ItemBookingPointer> toSave = new ArrayList<>();
+        for (Long itemId : itemIds) {
+            toSave.add(pointers.getOrDefault(itemId, new ItemBookingPointer(itemId)));
+        }
+        itemBookingPointerRepository.saveAll(toSave);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.item-bookings.sweep-interval-ms:60000}")
+    @Transactional
+    @Override
+    public void sweep() {
+        List<Long> itemIds = itemBookingPointerRepository.findItemIdsWithNextStartBefore(LocalDateTime.now());
+        refresh(itemIds);
+        log.debug("Обновлены указатели бронирований для {} вещей", itemIds.size());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    @Override
+    public void rebuild() {
+        refresh(bookingRepository.findItemIdsByStatus(BookingStatus.APPROVED));
+    }
+
+    private Map<Long, ItemBookingPointer> resolve(Collection<Long> itemIds, LocalDateTime now) {
+        Map<Long, ItemBookingPointer> pointers = new HashMap<>();
+        if (itemIds.isEmpty()) {
+            return pointers;
+        }
+        for (Booking booking : bookingRepository.getLastAndNextBookings(itemIds, now)) {
+            ItemBookingPointer pointer = pointers.computeIfAbsent(booking.getItem().getId(), ItemBookingPointer::new);
+            if (booking.getStart().isBefore(now)) {
+                pointer.setLastBooking(booking);
+            } else {
+                pointer.setNextBooking(booking);
+                pointer.setNextStart(booking.getStart());
+            }
+        }
+        return pointers;
+    }
+}
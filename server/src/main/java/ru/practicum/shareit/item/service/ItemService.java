@@ -4,7 +4,9 @@ import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemService {
 
@@ -14,7 +16,14 @@ public interface ItemService {
 
     ItemDto getItem(Long userId, Long itemId);
 
-    List<ItemDto> searchForItems(Long userId, String text, Pageable pageable);
+    Optional<String> getItemRevision(Long userId, Long itemId);
+
+    List<ItemDto> searchForItems(Long userId, String text, LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    List<ItemDto> fuzzySearchForItems(Long userId, String text, LocalDateTime start, LocalDateTime end,
+                                      Pageable pageable);
+
+    List<String> suggest(Long userId, String prefix, int size);
 
     List<ItemDto> getItemsByUser(Long userId, Pageable pageable);
 
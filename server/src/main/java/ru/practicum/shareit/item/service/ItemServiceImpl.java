@@ -1,12 +1,14 @@
 package ru.practicum.shareit.item.service;
 
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.enums.BookingStatus;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
 import ru.practicum.shareit.exceptions.BadRequestException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.dto.CommentDto;
@@ -15,25 +17,44 @@ import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingPointer;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.ItemSuggestIndex;
+import ru.practicum.shareit.item.search.RussianAnalyzer;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.KnownUsers;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
 import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
 public class ItemServiceImpl implements ItemService {
 
+    static final int MAX_SEARCH_PAGE_SIZE = 100;
+
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final KnownUsers knownUsers;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
+    private final ItemBookingPointerService itemBookingPointerService;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemSuggestIndex itemSuggestIndex;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemSearchCache itemSearchCache;
+    private final ItemViewCache itemViewCache;
 
     @Transactional
     @Override
@@ -44,19 +65,21 @@ public class ItemServiceImpl implements ItemService {
                 || itemDto.getAvailable() == null) {
             throw new BadRequestException("Не заполнены необходимые поля новой вещи");
         }
-        userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException("Пользователь с id = " + userId + " не найден"));
-        item = ItemMapper.mapToItem(userId, itemDto);
-        return ItemMapper.mapToItemDto(itemRepository.save(item));
+        knownUsers.requireExists(userId);
+        item = itemRepository.save(ItemMapper.mapToItem(userId, itemDto));
+        itemSearchIndex.indexAfterCommit(item);
+        itemSuggestIndex.indexAfterCommit(item);
+        itemSearchCache.invalidateAfterCommit(item);
+        return ItemMapper.mapToItemDto(item);
     }
 
     @Transactional
     @Override
     public ItemDto editItem(Long userId, Long itemId, ItemDto itemDto) {
-        userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException("Пользователь с id = " + userId + " не найден"));
+        knownUsers.requireExists(userId);
         Item item = itemRepository.findById(itemId).orElseThrow(() ->
                 new NotFoundException("Вещь с id = " + itemId + " не найдена"));
+        Item previous = item.toBuilder().build();
         if (itemDto.getName() != null) {
             item.setName(itemDto.getName());
         }
@@ -66,14 +89,18 @@ public class ItemServiceImpl implements ItemService {
         if (itemDto.getAvailable() != null) {
             item.setAvailable(itemDto.getAvailable());
         }
-        return ItemMapper.mapToItemDto(itemRepository.save(item));
+        item = itemRepository.save(item);
+        itemSearchIndex.indexAfterCommit(item);
+        itemSuggestIndex.indexAfterCommit(item);
+        itemSearchCache.invalidateAfterCommit(previous, item);
+        itemViewCache.invalidateAfterCommit(List.of(itemId));
+        return ItemMapper.mapToItemDto(item);
     }
 
     @Transactional(readOnly = true)
     @Override
     public List<ItemDto> getItemsByUser(Long userId, Pageable pageable) {
-        userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException("Пользователь с id = " + userId + " не найден"));
+        knownUsers.requireExists(userId);
 
         List<Item> items;
         if (pageable != null) {
@@ -81,53 +108,188 @@ public class ItemServiceImpl implements ItemService {
         } else {
             items = itemRepository.findItemsByOwnerOrderById(userId);
         }
+        return setBookings(userId, items);
+    }
+
+    public List<ItemDto> setBookings(Long userId, List<Item> items) {
+        List<Long> ownItemIds = items.stream()
+                .filter(item -> userId.equals(item.getOwner()))
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        Map<Long, ItemBookingPointer> pointers = itemBookingPointerService.getPointers(ownItemIds);
         List<ItemDto> itemList = new ArrayList<>();
         for (Item item : items) {
-            ItemDto itemDto = setBookings(userId, item);
+            ItemDto itemDto = ItemMapper.mapToItemDto(item);
+            ItemBookingPointer pointer = pointers.get(item.getId());
+            if (pointer != null) {
+                itemDto.setLastBooking(pointer.getLastBooking());
+                itemDto.setNextBooking(pointer.getNextBooking());
+            }
             itemList.add(itemDto);
         }
-
         return itemList;
     }
 
     public ItemDto setBookings(Long userId, Item item) {
-        ItemDto itemDto = ItemMapper.mapToItemDto(item);
-        if (userId.equals(item.getOwner())) {
-            Booking lastBooking = bookingRepository.getLastBooking(item.getId()).orElse(null);
-            itemDto.setLastBooking(lastBooking);
-            Booking nextBooking = bookingRepository.getNextBooking(item.getId()).orElse(null);
-            itemDto.setNextBooking(nextBooking);
-        }
-        return itemDto;
+        return setBookings(userId, List.of(item)).get(0);
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     @Override
     public ItemDto getItem(Long userId, Long itemId) {
-        userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException("Пользователь с id = " + userId + " не найден"));
+        knownUsers.requireExists(userId);
+        Optional<ItemDto> cached = itemViewCache.get(itemId, userId);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        long generation = itemViewCache.generation();
         Item item = itemRepository.findById(itemId).orElseThrow(() ->
                 new NotFoundException("Вещь с id = " + itemId + " не найдена"));
         ItemDto itemDto = setBookings(userId, item);
         commentRepository.getCommentsByItemId(itemId).ifPresent(comments -> itemDto.setComments(comments.stream()
                 .map(CommentMapper::mapToCommentDto)
                 .collect(Collectors.toList())));
+        itemViewCache.put(item.getOwner(), userId, itemDto, generation);
         return itemDto;
     }
 
+    /**
+     * Владелец видит в карточке бронирования, поэтому его ревизия включает указатели на них.
+     * Если следующее бронирование уже началось, а указатели еще не обновлены, ревизии нет:
+     * карточка уже изменилась, а версия еще нет.
+     */
     @Transactional(readOnly = true)
     @Override
-    public List<ItemDto> searchForItems(Long userId, String text, Pageable pageable) {
-        List<ItemDto> items = new ArrayList<>();
-        if (!text.isBlank()) {
-            if (pageable != null) {
-                items = itemRepository.search(text).stream().map(ItemMapper::mapToItemDto).collect(Collectors.toList());
-            } else {
-                items = itemRepository.search(text, pageable).stream()
-                        .map(ItemMapper::mapToItemDto).collect(Collectors.toList());
+    public Optional<String> getItemRevision(Long userId, Long itemId) {
+        knownUsers.requireExists(userId);
+        return itemRepository.findRevisionById(itemId).flatMap(revision -> {
+            String common = revision.getVersion() + "-" + revision.getComments();
+            if (!userId.equals(revision.getOwner())) {
+                return Optional.of(common);
+            }
+            if (revision.getNextStart() != null && !revision.getNextStart().isAfter(LocalDateTime.now())) {
+                return Optional.empty();
             }
+            return Optional.of(common + "-" + revision.getLastBookingId() + "-" + revision.getNextBookingId());
+        });
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<ItemDto> searchForItems(Long userId, String text, LocalDateTime start, LocalDateTime end,
+                                        Pageable pageable) {
+        if (text.isBlank()) {
+            return new ArrayList<>();
+        }
+        Pageable page = searchPage(pageable);
+        validatePeriod(start, end);
+        return search(false, text, start, end, page);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<ItemDto> fuzzySearchForItems(Long userId, String text, LocalDateTime start, LocalDateTime end,
+                                             Pageable pageable) {
+        if (text.isBlank()) {
+            return new ArrayList<>();
+        }
+        Pageable page = searchPage(pageable);
+        validatePeriod(start, end);
+        return search(true, text, start, end, page);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<String> suggest(Long userId, String prefix, int size) {
+        if (size < 1) {
+            throw new BadRequestException("Количество элементов должно быть положительным");
+        }
+        if (prefix.isBlank()) {
+            return new ArrayList<>();
+        }
+        int limit = Math.min(size, ItemSuggestIndex.MAX_SUGGESTIONS);
+        if (itemSuggestIndex.isReady()) {
+            return itemSuggestIndex.suggest(prefix, limit);
+        }
+        String escaped = RussianAnalyzer.normalize(prefix).strip().replaceAll("([\\\\%_])", "\\\\$1");
+        return itemRepository.findNamesByPrefix(escaped, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Страницы поиска без периода берутся из кэша: по id вещи загружаются одним запросом по первичному ключу.
+     */
+    private List<ItemDto> search(boolean fuzzy, String text, LocalDateTime start, LocalDateTime end, Pageable page) {
+        if (start != null) {
+            return find(fuzzy, text, start, end, page).stream()
+                    .map(ItemMapper::mapToItemDto)
+                    .collect(Collectors.toList());
+        }
+        ItemSearchCache.Key key = ItemSearchCache.key(fuzzy, text, page.getOffset(), page.getPageSize());
+        Optional<List<Long>> cached = itemSearchCache.get(key);
+        if (cached.isPresent()) {
+            List<Long> ids = cached.get();
+            Map<Long, Item> items = itemRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Item::getId, Function.identity()));
+            return ids.stream()
+                    .map(items::get)
+                    .filter(Objects::nonNull)
+                    .map(ItemMapper::mapToItemDto)
+                    .collect(Collectors.toList());
+        }
+        long generation = itemSearchCache.generation();
+        List<Item> items = find(fuzzy, text, null, null, page);
+        itemSearchCache.put(key, items.stream().map(Item::getId).collect(Collectors.toList()), generation);
+        return items.stream().map(ItemMapper::mapToItemDto).collect(Collectors.toList());
+    }
+
+    private List<Item> find(boolean fuzzy, String text, LocalDateTime start, LocalDateTime end, Pageable page) {
+        if (itemSearchIndex.isReady()) {
+            return fuzzy
+                    ? itemSearchIndex.fuzzySearch(text, freeIn(start, end), page)
+                    : itemSearchIndex.search(text, freeIn(start, end), page);
+        }
+        return fuzzy
+                ? itemRepository.fuzzySearch(text, start, end, page).getContent()
+                : itemRepository.search(text, start, end, page).getContent();
+    }
+
+    private static void validatePeriod(LocalDateTime start, LocalDateTime end) {
+        if (start == null && end == null) {
+            return;
+        }
+        if (start == null || end == null) {
+            throw new BadRequestException("Должны быть заполнены дата начала и дата окончания периода");
+        }
+        if (start.isBefore(LocalDateTime.now())) {
+            throw new BadRequestException("Дата начала периода не должна быть раньше текущей даты и времени");
+        }
+        if (!end.isAfter(start)) {
+            throw new BadRequestException("Дата окончания периода должна быть позже даты начала");
+        }
+    }
+
+    /**
+     * Фильтр свободных в период вещей для поиска в памяти: подтвержденные будущие бронирования
+     * уже лежат в индексе интервалов, поэтому БД не опрашивается.
+     */
+    private LongPredicate freeIn(LocalDateTime start, LocalDateTime end) {
+        if (start == null) {
+            return id -> true;
+        }
+        return id -> !bookingIntervalIndex.overlaps(id, start, end);
+    }
+
+    /**
+     * Поиск всегда ограничен страницей: без параметров возвращается первая страница наибольшего размера.
+     */
+    private static Pageable searchPage(Pageable pageable) {
+        if (pageable == null) {
+            return PageRequest.of(0, MAX_SEARCH_PAGE_SIZE);
+        }
+        if (pageable.getPageSize() > MAX_SEARCH_PAGE_SIZE) {
+            throw new BadRequestException("Количество элементов не может быть больше " + MAX_SEARCH_PAGE_SIZE);
         }
-        return items;
+        return pageable;
     }
 
     @Transactional
@@ -150,6 +312,7 @@ public class ItemServiceImpl implements ItemService {
             throw new BadRequestException("Пользователь не может оставить комментарий к вещи");
         }
         Comment comment = CommentMapper.mapToComment(item, user, commentDto);
+        itemViewCache.invalidateAfterCommit(List.of(itemId));
         return CommentMapper.mapToCommentDto(commentRepository.save(comment));
     }
 
@@ -0,0 +1,179 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Кэш собранных карточек вещи: вещь, последнее и следующее бронирования и комментарии.
+ * Владелец и остальные пользователи видят карточку по-разному, поэтому для вещи хранится по представлению на роль.
+ * Записи сбрасываются при изменении вещи, комментариев и бронирований, а представление с бронированиями,
+ * кроме того, истекает к началу следующего бронирования: в этот момент оно становится последним.
+ */
+@Component
+public class ItemViewCache {
+
+    private enum Viewer {
+        OWNER, OTHER
+    }
+
+    private final int maxEntries;
+    private final Duration ttl;
+    private final Clock clock;
+    private final LinkedHashMap<Long, Views> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private long generation;
+
+    @Autowired
+    public ItemViewCache(@Value("${shareit.item-views.max-entries:10000}") int maxEntries,
+                         @Value("${shareit.item-views.ttl:5m}") Duration ttl,
+                         MeterRegistry meterRegistry) {
+        this(maxEntries, ttl, Clock.systemDefaultZone());
+        FunctionCounter.builder("shareit.item-views.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("shareit.item-views.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("shareit.item-views.invalidations", invalidations, LongAdder::sum)
+                .register(meterRegistry);
+        Gauge.builder("shareit.item-views.size", this, ItemViewCache::size)
+                .register(meterRegistry);
+    }
+
+    ItemViewCache(int maxEntries, Duration ttl, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Views> eldest) {
+                return size() > ItemViewCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Копия карточки вещи для пользователя, если она есть в кэше и не истекла.
+     */
+    public synchronized Optional<ItemDto> get(Long itemId, Long userId) {
+        Views views = entries.get(itemId);
+        View view = views == null ? null : views.byViewer.get(views.viewer(userId));
+        if (view != null && !LocalDateTime.now(clock).isBefore(view.expiresAt)) {
+            views.byViewer.remove(views.viewer(userId));
+            view = null;
+        }
+        if (view == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(copy(view.item));
+    }
+
+    /**
+     * Поколение кэша до сборки карточки: карточка, собранная до сброса, не должна попасть
+     * в кэш после него, поэтому {@link #put} с устаревшим поколением ничего не делает.
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Карточка из пишущей транзакции не кэшируется: в нее могли попасть еще не закоммиченные изменения.
+     */
+    public synchronized void put(Long owner, Long userId, ItemDto item, long generation) {
+        boolean uncommitted = TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (uncommitted || generation != this.generation) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime expiresAt = now.plus(ttl);
+        if (item.getNextBooking() != null && item.getNextBooking().getStart().isBefore(expiresAt)) {
+            expiresAt = item.getNextBooking().getStart();
+        }
+        if (!now.isBefore(expiresAt)) {
+            return;
+        }
+        Views views = entries.computeIfAbsent(item.getId(), id -> new Views(owner));
+        views.byViewer.put(views.viewer(userId), new View(copy(item), expiresAt));
+    }
+
+    /**
+     * Сбрасывает карточки вещей сразу и еще раз после коммита: карточка, собранная между ними,
+     * могла прочитать еще не закоммиченное состояние.
+     */
+    public void invalidateAfterCommit(Collection<Long> itemIds) {
+        invalidate(itemIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(itemIds);
+                }
+            });
+        }
+    }
+
+    synchronized void invalidate(Collection<Long> itemIds) {
+        generation++;
+        for (Long itemId : itemIds) {
+            if (entries.remove(itemId) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private static ItemDto copy(ItemDto item) {
+        return item.toBuilder()
+                .comments(item.getComments() == null ? null : new ArrayList<>(item.getComments()))
+                .build();
+    }
+
+    private static class Views {
+        private final Long owner;
+        private final Map<Viewer, View> byViewer = new EnumMap<>(Viewer.class);
+
+        Views(Long owner) {
+            this.owner = owner;
+        }
+
+        Viewer viewer(Long userId) {
+            return owner.equals(userId) ? Viewer.OWNER : Viewer.OTHER;
+        }
+    }
+
+    private static final class View {
+        private final ItemDto item;
+        private final LocalDateTime expiresAt;
+
+        View(ItemDto item, LocalDateTime expiresAt) {
+            this.item = item;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
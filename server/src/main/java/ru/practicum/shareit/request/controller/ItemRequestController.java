@@ -2,7 +2,10 @@ package ru.practicum.shareit.request.controller;
 
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.ETagUtil;
 import ru.practicum.shareit.PageRequestUtil;
 import ru.practicum.shareit.request.model.ItemRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
@@ -38,8 +41,10 @@ public class ItemRequestController {
     }
 
     @GetMapping("/{requestId}")
-    ItemRequestDto getItemRequest(@RequestHeader("X-Sharer-User-Id") long userId,
-                                  @PathVariable long requestId) {
-        return itemRequestService.getItemRequest(userId, requestId);
+    ResponseEntity<ItemRequestDto> getItemRequest(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                  @PathVariable long requestId,
+                                                  WebRequest request) {
+        return ETagUtil.conditionalGet(request, itemRequestService.getItemRequestRevision(userId, requestId),
+                () -> itemRequestService.getItemRequest(userId, requestId));
     }
 }
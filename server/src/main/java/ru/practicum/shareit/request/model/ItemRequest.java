@@ -25,4 +25,11 @@ public class ItemRequest {
     private User requestor;
     @Column(name = "created")
     private LocalDateTime created;
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    public ItemRequest(Long id, String description, User requestor, LocalDateTime created) {
+        this(id, description, requestor, created, 0);
+    }
 }
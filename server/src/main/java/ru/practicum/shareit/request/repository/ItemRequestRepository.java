@@ -1,6 +1,7 @@
 package ru.practicum.shareit.request.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.request.model.ItemRequest;
 
@@ -12,4 +13,17 @@ public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long>
 
     Optional<List<ItemRequest>> getAllByRequestorIdOrderByCreatedDesc(Long userId);
 
+    /**
+     * Ревизия запроса: версии запроса и его автора, число откликнувшихся вещей и сумма их версий.
+     * Вещи не удаляются, а любое их изменение увеличивает версию, поэтому сумма меняется при каждой правке.
+     */
+    @Query("select concat(str(r.version), '-', str(u.version), '-', str(count(i.id)), '-', " +
+            "str(coalesce(sum(i.version), 0))) " +
+            "from ItemRequest r " +
+            "join r.requestor u " +
+            "left join Item i on i.requestId = r.id " +
+            "where r.id = ?1 " +
+            "group by r.version, u.version")
+    Optional<String> findRevisionById(Long itemRequestId);
+
 }
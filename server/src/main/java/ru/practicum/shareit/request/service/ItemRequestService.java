@@ -4,6 +4,7 @@ import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.request.model.ItemRequestDto;
 
 import java.util.List;
+import java.util.Optional;
 
 
 public interface ItemRequestService {
@@ -15,4 +16,6 @@ public interface ItemRequestService {
     List<ItemRequestDto> getAllWithPagination(Long userId, Pageable pageable);
 
     ItemRequestDto getItemRequest(Long userId, Long itemRequestId);
+
+    Optional<String> getItemRequestRevision(Long userId, Long itemRequestId);
 }
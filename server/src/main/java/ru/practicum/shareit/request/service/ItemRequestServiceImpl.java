@@ -15,6 +15,7 @@ import ru.practicum.shareit.request.model.ItemRequestDto;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.KnownUsers;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -27,6 +28,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     private ItemRequestRepository itemRequestRepository;
     private UserRepository userRepository;
+    private KnownUsers knownUsers;
     private ItemRepository itemRepository;
 
     @Transactional
@@ -45,8 +47,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     @Transactional(readOnly = true)
     @Override
     public List<ItemRequestDto> getOwnItemRequests(Long userId) {
-        userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException("Пользователь с id = " + userId + " не найден"));
+        knownUsers.requireExists(userId);
         Optional<List<ItemRequest>> itemRequests = itemRequestRepository.getAllByRequestorIdOrderByCreatedDesc(userId);
         List<ItemRequest> itemRequestToAddItem = new ArrayList<>();
         itemRequests.ifPresent(itemRequestToAddItem::addAll);
@@ -56,8 +57,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     @Transactional(readOnly = true)
     @Override
     public List<ItemRequestDto> getAllWithPagination(Long userId, Pageable pageable) {
-        userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException("Пользователь с id = " + userId + " не найден"));
+        knownUsers.requireExists(userId);
         List<ItemRequestDto> itemRequestDtos = new ArrayList<>();
         if (pageable != null) {
             List<ItemRequest> itemRequests = itemRequestRepository.findAll(pageable).stream()
@@ -71,8 +71,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     @Transactional(readOnly = true)
     @Override
     public ItemRequestDto getItemRequest(Long userId, Long itemRequestId) {
-        userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException("Пользователь с id = " + userId + " не найден"));
+        knownUsers.requireExists(userId);
         ItemRequest itemRequest = itemRequestRepository.findById(itemRequestId).orElseThrow(() ->
                 new NotFoundException("Запрос с id = " + itemRequestId + " не найден"));
         Optional<Item> item = itemRepository.getItemByRequestId(itemRequest.getId());
@@ -81,6 +80,13 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return itemRequestDto;
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public Optional<String> getItemRequestRevision(Long userId, Long itemRequestId) {
+        knownUsers.requireExists(userId);
+        return itemRequestRepository.findRevisionById(itemRequestId);
+    }
+
 //    Сделан public для юнит-тестирования
     public List<ItemRequestDto> addItemToRequest(List<ItemRequest> itemRequests) {
         List<ItemRequestDto> itemRequestDtos = new ArrayList<>();
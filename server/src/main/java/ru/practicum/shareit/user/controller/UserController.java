@@ -1,7 +1,10 @@
 package ru.practicum.shareit.user.controller;
 
 import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.ETagUtil;
 import ru.practicum.shareit.user.model.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
@@ -21,8 +24,9 @@ public class UserController {
     }
 
     @GetMapping("/{userId}")
-    public UserDto getUser(@PathVariable("userId") long userId) {
-        return userService.getUser(userId);
+    public ResponseEntity<UserDto> getUser(@PathVariable("userId") long userId, WebRequest request) {
+        return ETagUtil.conditionalGet(request, userService.getUserRevision(userId),
+                () -> userService.getUser(userId));
     }
 
     @PostMapping
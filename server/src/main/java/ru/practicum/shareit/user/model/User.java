@@ -1,12 +1,19 @@
 package ru.practicum.shareit.user.model;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import ru.practicum.shareit.cache.CacheRegions;
+import ru.practicum.shareit.user.service.KnownUsersListener;
 
 import javax.persistence.*;
 import javax.validation.constraints.Email;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(KnownUsersListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.USERS)
 @Getter
 @Setter
 @ToString
@@ -23,4 +30,11 @@ public class User {
     @Email
     @Column(name = "email")
     private String email;
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    public User(Long id, String name, String email) {
+        this(id, name, email, 0);
+    }
 }
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.user.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Фильтр Блума для id: отрицательный ответ точен, положительный ошибочен с вероятностью falsePositiveRate,
+ * пока в фильтре не больше expectedInsertions id. Добавление и проверка потокобезопасны без блокировок.
+ */
+class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long size;
+    private final int hashes;
+
+    BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = new AtomicLongArray(Math.toIntExact((m + 63) / 64));
+        this.size = bits.length() * 64L;
+        this.hashes = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+    }
+
+    void add(long id) {
+        long hash = mix(id);
+        for (int i = 0; i < hashes; i++) {
+            long bit = index(hash, i);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+    }
+
+    boolean mightContain(long id) {
+        long hash = mix(id);
+        for (int i = 0; i < hashes; i++) {
+            long bit = index(hash, i);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * i-я хеш-функция по схеме Кирша — Митценмахера: h1 + i * h2 из двух половин одного 64-битного хеша.
+     */
+    private long index(long hash, int i) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return Math.floorMod(h1 + (long) i * h2, size);
+    }
+
+    /**
+     * Финализатор SplitMix64: последовательные id дают независимые на вид хеши.
+     */
+    private static long mix(long id) {
+        long z = id + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,150 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Проверка существования пользователя из заголовка запроса без обращения к БД на горячем пути.
+ * Фильтр Блума содержит id пользователей, загруженных при старте и созданных через этот узел. Id, которого
+ * в нем нет, проверяется по БД (пользователь мог появиться на другом узле) и при успехе добавляется в фильтр.
+ * Id из фильтра ищется среди недавно подтвержденных (LRU), и только при промахе выполняется запрос к БД.
+ * Удаленные пользователи остаются в фильтре, но уходят из подтвержденных, поэтому проверяются по БД.
+ * О сохранениях и удалениях через JPA сообщает {@link KnownUsersListener}. Об удалении на другом узле
+ * или в обход JPA узел не узнает, поэтому подтверждение действует только shareit.users.confirmed-ttl.
+ */
+@Component
+@Slf4j
+public class KnownUsers {
+
+    private static final int LOAD_PAGE_SIZE = 1000;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final UserRepository userRepository;
+    private final BloomFilter created;
+    // id -> момент (System.nanoTime), до которого подтверждение действительно
+    private final Map<Long, Long> confirmed;
+    private final long confirmedTtlNanos;
+    private final LongSupplier clock;
+    private volatile boolean ready;
+
+    @Autowired
+    public KnownUsers(UserRepository userRepository,
+                      @Value("${shareit.users.expected-count:1000000}") long expectedCount,
+                      @Value("${shareit.users.confirmed-cache-size:100000}") int confirmedCacheSize,
+                      @Value("${shareit.users.confirmed-ttl:60s}") Duration confirmedTtl) {
+        this(userRepository, expectedCount, confirmedCacheSize, confirmedTtl, System::nanoTime);
+    }
+
+    KnownUsers(UserRepository userRepository, long expectedCount, int confirmedCacheSize, Duration confirmedTtl,
+               LongSupplier clock) {
+        this.userRepository = userRepository;
+        this.created = new BloomFilter(expectedCount, FALSE_POSITIVE_RATE);
+        this.confirmedTtlNanos = confirmedTtl.toNanos();
+        this.clock = clock;
+        this.confirmed = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                return size() > confirmedCacheSize;
+            }
+        };
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long count = 0;
+        List<Long> ids = userRepository.findIdsAfter(0L, PageRequest.of(0, LOAD_PAGE_SIZE));
+        while (!ids.isEmpty()) {
+            ids.forEach(created::add);
+            count += ids.size();
+            ids = userRepository.findIdsAfter(ids.get(ids.size() - 1), PageRequest.of(0, LOAD_PAGE_SIZE));
+        }
+        ready = true;
+        log.info("Фильтр пользователей загружен: {} id", count);
+    }
+
+    public void requireExists(Long userId) {
+        if (!exists(userId)) {
+            throw new NotFoundException("Пользователь с id = " + userId + " не найден");
+        }
+    }
+
+    public boolean exists(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        if (ready && !created.mightContain(userId)) {
+            // Фильтр знает только id, созданные через этот узел: пользователь мог появиться на другом узле
+            // или в обход JPA, поэтому промах фильтра проверяется по БД
+            if (!userRepository.existsById(userId)) {
+                return false;
+            }
+            created.add(userId);
+            confirm(userId);
+            return true;
+        }
+        synchronized (confirmed) {
+            Long confirmedUntil = confirmed.get(userId);
+            if (confirmedUntil != null && clock.getAsLong() - confirmedUntil < 0) {
+                return true;
+            }
+        }
+        // findById, а не existsById: в транзакции пользователь часто уже есть в контексте персистентности
+        if (userRepository.findById(userId).isEmpty()) {
+            forget(userId);
+            return false;
+        }
+        confirm(userId);
+        return true;
+    }
+
+    /**
+     * Вызывается при вставке, до коммита: id попадает в фильтр сразу, чтобы проверка сразу после коммита его не отвергла.
+     * Откат оставит лишний id в фильтре, что лишь приведет к запросу в БД.
+     */
+    public void created(Long userId) {
+        created.add(userId);
+    }
+
+    /**
+     * Пользователь забывается сразу и еще раз после коммита: проверка, прошедшая между ними, могла снова
+     * подтвердить его по еще не закоммиченной БД.
+     */
+    public void deleted(Long userId) {
+        forget(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    forget(userId);
+                }
+            });
+        }
+    }
+
+    private void confirm(Long userId) {
+        synchronized (confirmed) {
+            confirmed.put(userId, clock.getAsLong() + confirmedTtlNanos);
+        }
+    }
+
+    private void forget(Long userId) {
+        synchronized (confirmed) {
+            confirmed.remove(userId);
+        }
+    }
+}
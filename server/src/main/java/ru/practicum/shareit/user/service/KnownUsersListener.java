@@ -0,0 +1,31 @@
+package ru.practicum.shareit.user.service;
+
+import org.springframework.beans.factory.ObjectProvider;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+
+/**
+ * Держит {@link KnownUsers} в курсе любых сохранений и удалений пользователей через JPA, а не только
+ * вызовов UserService. Экземпляр создает Hibernate через контейнер Spring; в срезах контекста без
+ * KnownUsers (например, в @DataJpaTest) слушатель ничего не делает.
+ */
+public class KnownUsersListener {
+
+    private final ObjectProvider<KnownUsers> knownUsers;
+
+    public KnownUsersListener(ObjectProvider<KnownUsers> knownUsers) {
+        this.knownUsers = knownUsers;
+    }
+
+    @PostPersist
+    public void created(User user) {
+        knownUsers.ifAvailable(users -> users.created(user.getId()));
+    }
+
+    @PostRemove
+    public void deleted(User user) {
+        knownUsers.ifAvailable(users -> users.deleted(user.getId()));
+    }
+}
@@ -3,6 +3,7 @@ package ru.practicum.shareit.user.service;
 import ru.practicum.shareit.user.model.UserDto;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface UserService {
 
@@ -10,6 +11,8 @@ public interface UserService {
 
     UserDto getUser(Long userId);
 
+    Optional<String> getUserRevision(Long userId);
+
     UserDto createUser(UserDto userDto);
 
     UserDto updateUser(Long userId, UserDto userDto);
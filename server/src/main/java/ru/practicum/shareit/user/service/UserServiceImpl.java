@@ -11,6 +11,7 @@ import ru.practicum.shareit.user.model.UserDto;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -34,6 +35,12 @@ public class UserServiceImpl implements UserService {
         return UserMapper.mapToUserDto(user);
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public Optional<String> getUserRevision(Long userId) {
+        return userRepository.findVersionById(userId).map(String::valueOf);
+    }
+
     @Transactional
     @Override
     public UserDto createUser(UserDto userDto) {
@@ -0,0 +1,11 @@
+-- объекты, появившиеся после схемы V1: базы, принятые под миграции с baseline-version=1,
+-- могли быть созданы и до них, и после, поэтому скрипт не падает на уже существующих
+create sequence if not exists bookings_seq start with 1 increment by 50;
+
+create table if not exists item_booking_pointers (
+  item_id bigint NOT NULL references items (id) on delete cascade,
+  last_booking_id bigint references bookings (id) on delete set null,
+  next_booking_id bigint references bookings (id) on delete set null,
+  next_start_date timestamp without time zone default NULL,
+  constraint pk_item_booking_pointers primary key (item_id)
+);
@@ -1,5 +1,4 @@
-drop table if exists users cascade;
-create table if not exists users (
+create table users (
   id bigint GENERATED BY DEFAULT AS IDENTITY NOT NULL,
   name VARCHAR(255) NOT NULL CHECK (name <> ''),
   email VARCHAR(512)  NOT NULL UNIQUE CHECK (email <> ''),
@@ -7,9 +6,7 @@ create table if not exists users (
   CONSTRAINT UQ_USER_EMAIL UNIQUE (email)
 );
 
-
-drop table if exists requests cascade;
-create table if not exists requests (
+create table requests (
     id bigint GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     description VARCHAR(512) NOT NULL,
     requestor_id bigint references users(id),
@@ -17,8 +14,7 @@ create table if not exists requests (
     constraint pk_request primary key (id)
 );
 
-drop table if exists items cascade;
-create table if not exists items (
+create table items (
   id bigint GENERATED BY DEFAULT AS IDENTITY NOT NULL,
   name VARCHAR(255) NOT NULL,
   description VARCHAR(512) NOT NULL,
@@ -28,8 +24,7 @@ create table if not exists items (
   CONSTRAINT pk_item PRIMARY KEY (id)
 );
 
-drop table if exists comments cascade;
-create table if not exists comments (
+create table comments (
     id bigint generated by default as identity not null,
     text varchar(512) not null,
     item_id bigint references items (id),
@@ -38,11 +33,9 @@ create table if not exists comments (
     constraint pk_comment primary key (id)
 );
 
-drop type if exists status cascade;
 create type status as enum ('WAITING', 'APPROVED', 'REJECTED', 'CANCELED');
 
-drop table if exists bookings cascade;
-create table if not exists bookings (
+create table bookings (
   id bigint GENERATED BY DEFAULT AS IDENTITY NOT NULL,
   start_date timestamp without time zone default NULL,
   end_date timestamp without time zone default NULL,
@@ -51,4 +44,3 @@ create table if not exists bookings (
   status status NOT NULL,
   constraint pk_id primary key (id)
 );
-
@@ -0,0 +1,10 @@
+-- списки бронирований арендатора: booker_id = ? order by start_date desc
+create index ix_bookings_booker_start on bookings (booker_id, start_date desc);
+-- бронирования вещей по статусу и времени: last/next, пересечения, списки владельца
+create index ix_bookings_item_status_start on bookings (item_id, status, start_date);
+-- вещи владельца: owner_id = ? order by id
+create index ix_items_owner on items (owner_id, id);
+create index ix_items_request on items (request_id);
+create index ix_comments_item on comments (item_id);
+create index ix_requests_requestor_created on requests (requestor_id, created desc);
+create index ix_item_booking_pointers_next_start on item_booking_pointers (next_start_date);
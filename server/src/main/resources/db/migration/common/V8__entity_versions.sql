@@ -0,0 +1,5 @@
+-- версии сущностей для оптимистичных блокировок и слабых ETag ответов GET /{id}
+alter table users add column version bigint default 0 not null;
+alter table items add column version bigint default 0 not null;
+alter table bookings add column version bigint default 0 not null;
+alter table requests add column version bigint default 0 not null;
@@ -0,0 +1,2 @@
+-- бронирования, созданные через identity до появления bookings_seq: следующий блок id начнется после них
+select setval('bookings_seq', max(id)) from bookings having max(id) is not null;
@@ -0,0 +1,7 @@
+create extension if not exists btree_gist;
+
+-- ограничение уже могло быть создано прежним schema-postgresql.sql
+alter table bookings drop constraint if exists ex_bookings_approved_overlap;
+alter table bookings add constraint ex_bookings_approved_overlap
+  exclude using gist (item_id with =, tsrange(start_date, end_date) with &&)
+  where (status = 'APPROVED');
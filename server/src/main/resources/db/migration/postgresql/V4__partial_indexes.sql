@@ -0,0 +1,4 @@
+-- в выборках last/next и при прогреве индекса интервалов участвуют только подтвержденные бронирования
+create index ix_bookings_approved_item_start on bookings (item_id, start_date) where status = 'APPROVED';
+-- ожидающие решения бронирования обычно составляют малую долю таблицы
+create index ix_bookings_waiting_booker_start on bookings (booker_id, start_date desc) where status = 'WAITING';
@@ -0,0 +1,7 @@
+alter table items add column search_vector tsvector
+  generated always as (
+    setweight(to_tsvector('russian', coalesce(name, '')), 'A') ||
+    setweight(to_tsvector('russian', coalesce(description, '')), 'B')
+  ) stored;
+
+create index ix_items_search_vector on items using gin (search_vector);
@@ -0,0 +1,12 @@
+-- Словари russian не приравнивают "ё" к "е": "елка" не находила "ёлку". Выражение генерируемого столбца
+-- изменить нельзя, поэтому столбец и индекс создаются заново.
+drop index ix_items_search_vector;
+alter table items drop column search_vector;
+
+alter table items add column search_vector tsvector
+  generated always as (
+    setweight(to_tsvector('russian', translate(coalesce(name, ''), 'ёЁ', 'еЕ')), 'A') ||
+    setweight(to_tsvector('russian', translate(coalesce(description, ''), 'ёЁ', 'еЕ')), 'B')
+  ) stored;
+
+create index ix_items_search_vector on items using gin (search_vector);
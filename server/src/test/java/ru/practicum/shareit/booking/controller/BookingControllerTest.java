@@ -12,9 +12,13 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeResultDto;
 import ru.practicum.shareit.booking.enums.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exceptions.BookingOverlapException;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.user.model.UserDto;
 
@@ -31,6 +35,7 @@ import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -80,6 +85,20 @@ class BookingControllerTest {
         verify(bookingService, times(1)).addBooking(anyLong(), any());
     }
 
+    @SneakyThrows
+    @Test
+    void addBookings_whenBookingsAreValidated_thenReturnBookingDtos() {
+        when(bookingService.addBookings(anyLong(), any())).thenReturn(List.of(bookingDto));
+
+        mockMvc.perform(post("/bookings/batch")
+                        .header(header, 1L)
+                        .content(objectMapper.writeValueAsString(List.of(bookingDto)))
+                        .contentType("application/json"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(bookingDto.getId()), Long.class));
+    }
+
     @SneakyThrows
     @Test
     void changeStatus_whenBookingExists_ThenReturnBookingDtoWithChangedStatus() {
@@ -97,6 +116,39 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.status", is(bookingDto.getStatus().name())));
     }
 
+    @SneakyThrows
+    @Test
+    void changeStatus_whenApprovalOverlapsInDatabase_thenConflict() {
+        when(bookingService.changeStatus(anyLong(), anyLong(), anyBoolean())).thenThrow(
+                new BookingOverlapException("Бронирование пересекается с уже подтвержденным бронированием вещи"));
+
+        mockMvc.perform(patch("/bookings/{bookingId}", 1L)
+                        .header(header, 1L)
+                        .param("approved", String.valueOf(true))
+                        .contentType("application/json"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error", is("Бронирование пересекается с уже подтвержденным бронированием вещи")));
+    }
+
+    @SneakyThrows
+    @Test
+    void changeStatuses_whenBatchSent_thenReturnResultPerBooking() {
+        List<BookingStatusChangeDto> changes = List.of(new BookingStatusChangeDto(1L, true),
+                new BookingStatusChangeDto(2L, false));
+        when(bookingService.changeStatuses(1L, changes)).thenReturn(List.of(
+                BookingStatusChangeResultDto.applied(1L, BookingStatus.APPROVED),
+                BookingStatusChangeResultDto.failed(2L, "Бронирование с id = 2 не найдено")));
+
+        mockMvc.perform(patch("/bookings/batch")
+                        .header(header, 1L)
+                        .content(objectMapper.writeValueAsString(changes))
+                        .contentType("application/json"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].status", is(BookingStatus.APPROVED.name())))
+                .andExpect(jsonPath("$[1].error", is("Бронирование с id = 2 не найдено")));
+    }
+
     @SneakyThrows
     @Test
     void getBooking_whenBookingExists_thenReturnBookingDto() {
@@ -150,4 +202,34 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$[0].bookerId", is(bookingDto.getBookerId()), Long.class))
                 .andExpect(jsonPath("$[0].status", is(bookingDto.getStatus().name())));
     }
-}
\ No newline at end of file
+
+    @SneakyThrows
+    @Test
+    void getAllBookingsByBooker_whenPageFull_thenReturnNextCursorHeader() {
+        when(bookingService.getAllBookingsByBooker(anyLong(), anyString(), any())).thenReturn(List.of(bookingDto));
+
+        mockMvc.perform(get("/bookings")
+                        .header(header, 1L)
+                        .param("state", "ALL")
+                        .param("from", "0")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(BookingCursor.HEADER, BookingCursor.of(bookingDto).encode()));
+    }
+
+    @SneakyThrows
+    @Test
+    void getAllBookingsByOwner_whenCursorPassed_thenUseKeysetPagination() {
+        BookingCursor cursor = BookingCursor.of(bookingDto);
+        when(bookingService.getAllBookingsByOwner(1L, "ALL", cursor, 20)).thenReturn(List.of(bookingDto));
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header(header, 1L)
+                        .param("state", "ALL")
+                        .param("size", "20")
+                        .param("cursor", cursor.encode()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().doesNotExist(BookingCursor.HEADER));
+    }
+}
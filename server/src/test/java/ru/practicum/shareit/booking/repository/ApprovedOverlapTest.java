@@ -0,0 +1,41 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.BatchUpdateException;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ApprovedOverlapTest {
+
+    @Test
+    void isViolatedBy_whenExclusionViolation_thenTrue() {
+        assertTrue(ApprovedOverlap.isViolatedBy(new DataIntegrityViolationException("overlap",
+                new SQLException("conflicting key value violates exclusion constraint", "23P01"))));
+    }
+
+    @Test
+    void isViolatedBy_whenConstraintNamed_thenTrue() {
+        assertTrue(ApprovedOverlap.isViolatedBy(new DataIntegrityViolationException("overlap",
+                new ConstraintViolationException("overlap", new SQLException("overlap", "23000"),
+                        "EX_BOOKINGS_APPROVED_OVERLAP"))));
+    }
+
+    @Test
+    void isViolatedBy_whenBatchRowViolatesExclusion_thenTrue() {
+        BatchUpdateException batch = new BatchUpdateException("Batch entry 1 was aborted", "22000", new int[0]);
+        batch.setNextException(new SQLException("conflicting key value violates exclusion constraint", "23P01"));
+
+        assertTrue(ApprovedOverlap.isViolatedBy(batch));
+    }
+
+    @Test
+    void isViolatedBy_whenOtherViolation_thenFalse() {
+        assertFalse(ApprovedOverlap.isViolatedBy(new DataIntegrityViolationException("not null",
+                new ConstraintViolationException("not null", new SQLException("not null", "23502"), "items_name"))));
+    }
+}
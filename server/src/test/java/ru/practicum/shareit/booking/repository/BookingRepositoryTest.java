@@ -0,0 +1,51 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItems;
+
+@DataJpaTest
+class BookingRepositoryTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void explain_whenBookerBookingsSelected_thenBookerIndexUsed() {
+        String plan = explain("select b.id from bookings b where b.booker_id = 1 order by b.start_date desc");
+
+        assertThat(plan, containsString("IX_BOOKINGS_BOOKER_START"));
+    }
+
+    @Test
+    void explain_whenItemBookingsSelectedByStatus_thenItemStatusIndexUsed() {
+        String plan = explain("select b.id from bookings b where b.item_id in (1, 2) and b.status = 'APPROVED' " +
+                "and b.start_date > current_timestamp");
+
+        assertThat(plan, containsString("IX_BOOKINGS_ITEM_STATUS_START"));
+    }
+
+    @Test
+    void migrations_whenApplied_thenBookingIndexesCreated() {
+        assertThat(indexes("BOOKINGS"), hasItems("IX_BOOKINGS_BOOKER_START", "IX_BOOKINGS_ITEM_STATUS_START"));
+    }
+
+    private String explain(String sql) {
+        return entityManager.createNativeQuery("explain " + sql).getSingleResult().toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> indexes(String table) {
+        return entityManager.createNativeQuery("select index_name from information_schema.indexes " +
+                        "where table_name = ?1")
+                .setParameter(1, table)
+                .getResultList();
+    }
+}
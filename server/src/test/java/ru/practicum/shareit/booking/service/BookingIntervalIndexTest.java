@@ -0,0 +1,83 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.BookingInterval;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingIntervalIndexTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+    @InjectMocks
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    private LocalDateTime base;
+
+    @BeforeEach
+    void setUp() {
+        base = LocalDateTime.now().plusDays(10);
+    }
+
+    @Test
+    void tryReserve_whenIntervalsOverlap_thenSecondRejected() {
+        assertTrue(bookingIntervalIndex.tryReserve(interval(1L, 1L, 0, 5)));
+
+        assertFalse(bookingIntervalIndex.tryReserve(interval(1L, 2L, 4, 8)));
+        assertFalse(bookingIntervalIndex.tryReserve(interval(1L, 3L, -2, 1)));
+        assertFalse(bookingIntervalIndex.tryReserve(interval(1L, 4L, 1, 2)));
+        assertFalse(bookingIntervalIndex.tryReserve(interval(1L, 5L, -1, 6)));
+    }
+
+    @Test
+    void tryReserve_whenIntervalsTouchOrOtherItem_thenAccepted() {
+        assertTrue(bookingIntervalIndex.tryReserve(interval(1L, 1L, 0, 5)));
+
+        assertTrue(bookingIntervalIndex.tryReserve(interval(1L, 2L, 5, 8)));
+        assertTrue(bookingIntervalIndex.tryReserve(interval(1L, 3L, -3, 0)));
+        assertTrue(bookingIntervalIndex.tryReserve(interval(2L, 4L, 0, 5)));
+        assertTrue(bookingIntervalIndex.overlaps(1L, base.plusDays(7), base.plusDays(9)));
+        assertFalse(bookingIntervalIndex.overlaps(1L, base.plusDays(8), base.plusDays(9)));
+    }
+
+    @Test
+    void release_whenIntervalReleased_thenSlotFreed() {
+        BookingInterval interval = interval(1L, 1L, 0, 5);
+        bookingIntervalIndex.tryReserve(interval);
+
+        bookingIntervalIndex.release(interval);
+
+        assertFalse(bookingIntervalIndex.overlaps(1L, base, base.plusDays(5)));
+    }
+
+    @Test
+    void warmUp_whenApprovedBookingsExist_thenOverlapsDetected() {
+        when(bookingRepository.findIntervals(eq(BookingStatus.APPROVED), any()))
+                .thenReturn(List.of(interval(1L, 1L, 0, 5), interval(1L, 2L, 10, 12)));
+
+        bookingIntervalIndex.warmUp();
+
+        assertTrue(bookingIntervalIndex.overlaps(1L, base.plusDays(11), base.plusDays(13)));
+        assertFalse(bookingIntervalIndex.overlaps(1L, base.plusDays(6), base.plusDays(9)));
+        assertFalse(bookingIntervalIndex.overlaps(3L, base, base.plusDays(20)));
+    }
+
+    private BookingInterval interval(Long itemId, Long bookingId, int startDay, int endDay) {
+        return new BookingInterval(itemId, bookingId, base.plusDays(startDay), base.plusDays(endDay));
+    }
+}
@@ -3,31 +3,53 @@ package ru.practicum.shareit.booking.service;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.PageRequestUtil;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeResultDto;
 import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.exceptions.BadRequestException;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.model.UserDto;
+import ru.practicum.shareit.user.service.KnownUsers;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 
 @Transactional
 @SpringBootTest(
-        properties = "db.name=test",
+        properties = {"db.name=test", "shareit.cache.statistics=true"},
         webEnvironment = SpringBootTest.WebEnvironment.NONE)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
@@ -38,6 +60,12 @@ class BookingServiceImplItTest {
     private UserService userService;
     @Autowired
     private ItemService itemService;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private KnownUsers knownUsers;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
     private BookingDto bookingDto;
     private Item item;
     private ItemDto itemDto;
@@ -62,8 +90,8 @@ class BookingServiceImplItTest {
         userService.createUser(userDto);
         userService.createUser(userDtoKris);
         itemService.addItem(user.getId(), itemDto);
-        bookingDto.setStart(LocalDateTime.now().plusMonths(2));
-        bookingDto.setEnd(LocalDateTime.now().plusMonths(4));
+        bookingDto.setStart(LocalDateTime.now().plusMonths(2).truncatedTo(ChronoUnit.MICROS));
+        bookingDto.setEnd(LocalDateTime.now().plusMonths(4).truncatedTo(ChronoUnit.MICROS));
     }
 
     @Test
@@ -80,6 +108,41 @@ class BookingServiceImplItTest {
         assertThat(bookingDtoTest.getStatus(), equalTo(bookingDto.getStatus()));
     }
 
+    @Test
+    void getBookingRevision_whenStatusChanged_thenRevisionChangedOnlyForParticipants() {
+        BookingDto waiting = bookingService.addBooking(userKris.getId(), bookingDto);
+        userService.createUser(new UserDto(3L, "Boris", "boris@test.ru"));
+        String revision = bookingService.getBookingRevision(userKris.getId(), waiting.getId()).orElseThrow();
+
+        bookingService.changeStatus(user.getId(), waiting.getId(), true);
+
+        assertThat(bookingService.getBookingRevision(user.getId(), waiting.getId()).orElseThrow(),
+                not(equalTo(revision)));
+        assertThat(bookingService.getBookingRevision(3L, waiting.getId()).isEmpty(), equalTo(true));
+    }
+
+    @Test
+    void addBookings_whenManyBookings_thenInsertedInOneBatch() {
+        List<BookingDto> bookingDtos = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            bookingDtos.add(bookingDto.toBuilder()
+                    .id(null)
+                    .start(LocalDateTime.now().plusDays(i + 1))
+                    .end(LocalDateTime.now().plusDays(i + 2))
+                    .build());
+        }
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<BookingDto> created = bookingService.addBookings(userKris.getId(), bookingDtos);
+        entityManager.flush();
+
+        assertThat(created.size(), equalTo(10));
+        assertThat(statistics.getEntityInsertCount(), equalTo(10L));
+        assertThat(statistics.getPrepareStatementCount(), lessThanOrEqualTo(4L));
+        assertThat(bookingService.getAllBookingsByBooker(userKris.getId(), "WAITING", null).size(), equalTo(10));
+    }
+
     @Test
     void changeStatus() {
         bookingService.addBooking(userKris.getId(), bookingDto);
@@ -90,6 +153,89 @@ class BookingServiceImplItTest {
         assertThat(bookingDtoTest.getStatus(), equalTo(BookingStatus.APPROVED));
     }
 
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void changeStatus_whenChangedConcurrently_thenOnlyOneChangeApplied() throws Exception {
+        Long bookingId = bookingService.addBooking(userKris.getId(), bookingDto).getId();
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<BookingDto>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            boolean approved = i % 2 == 0;
+            results.add(executor.submit(() -> {
+                startSignal.await();
+                return bookingService.changeStatus(user.getId(), bookingId, approved);
+            }));
+        }
+        startSignal.countDown();
+
+        List<BookingDto> applied = new ArrayList<>();
+        int rejected = 0;
+        for (Future<BookingDto> result : results) {
+            try {
+                applied.add(result.get(30, TimeUnit.SECONDS));
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), instanceOf(BadRequestException.class));
+                rejected++;
+            }
+        }
+        executor.shutdown();
+
+        assertThat(applied.size(), equalTo(1));
+        assertThat(rejected, equalTo(threads - 1));
+        assertThat(bookingService.getBooking(user.getId(), bookingId).getStatus(),
+                equalTo(applied.get(0).getStatus()));
+    }
+
+    @Test
+    void changeStatuses() {
+        BookingDto first = bookingService.addBooking(userKris.getId(), bookingDto);
+        bookingDto.setStart(bookingDto.getEnd().plusDays(1));
+        bookingDto.setEnd(bookingDto.getEnd().plusDays(2));
+        BookingDto second = bookingService.addBooking(userKris.getId(), bookingDto);
+
+        List<BookingStatusChangeResultDto> results = bookingService.changeStatuses(user.getId(), List.of(
+                new BookingStatusChangeDto(first.getId(), true),
+                new BookingStatusChangeDto(second.getId(), false),
+                new BookingStatusChangeDto(second.getId(), true)));
+        entityManager.clear();
+
+        assertThat(results.get(0).getStatus(), equalTo(BookingStatus.APPROVED));
+        assertThat(results.get(1).getStatus(), equalTo(BookingStatus.REJECTED));
+        assertThat(results.get(2).getError(), notNullValue());
+        assertThat(bookingService.getBooking(user.getId(), first.getId()).getStatus(), equalTo(BookingStatus.APPROVED));
+        assertThat(bookingService.getBooking(user.getId(), second.getId()).getStatus(), equalTo(BookingStatus.REJECTED));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void changeStatuses_whenOneApprovalViolatesOverlapConstraint_thenOthersApplied() {
+        BookingDto first = bookingService.addBooking(userKris.getId(), bookingDto);
+        bookingDto.setStart(bookingDto.getEnd().plusDays(1));
+        bookingDto.setEnd(bookingDto.getEnd().plusDays(2));
+        BookingDto second = bookingService.addBooking(userKris.getId(), bookingDto);
+        bookingDto.setStart(bookingDto.getEnd().plusDays(1));
+        bookingDto.setEnd(bookingDto.getEnd().plusDays(2));
+        BookingDto third = bookingService.addBooking(userKris.getId(), bookingDto);
+        // В H2 нет ограничения-исключения, поэтому подтверждение второй брони запрещает ограничение с тем же именем
+        jdbcTemplate.execute("alter table bookings add constraint ex_bookings_approved_overlap " +
+                "check (status <> 'APPROVED' or id <> " + second.getId() + ")");
+
+        List<BookingStatusChangeResultDto> results = bookingService.changeStatuses(user.getId(), List.of(
+                new BookingStatusChangeDto(first.getId(), true),
+                new BookingStatusChangeDto(second.getId(), true),
+                new BookingStatusChangeDto(third.getId(), false)));
+
+        assertThat(results.get(0).getStatus(), equalTo(BookingStatus.APPROVED));
+        assertThat(results.get(1).getError(),
+                equalTo("Бронирование пересекается с уже подтвержденным бронированием вещи"));
+        assertThat(results.get(2).getStatus(), equalTo(BookingStatus.REJECTED));
+        assertThat(bookingService.getBooking(user.getId(), first.getId()).getStatus(), equalTo(BookingStatus.APPROVED));
+        assertThat(bookingService.getBooking(user.getId(), second.getId()).getStatus(), equalTo(BookingStatus.WAITING));
+        assertThat(bookingService.getBooking(user.getId(), third.getId()).getStatus(), equalTo(BookingStatus.REJECTED));
+    }
+
     @Test
     void getBooking() {
         bookingService.addBooking(userKris.getId(), bookingDto);
@@ -130,4 +276,61 @@ class BookingServiceImplItTest {
         assertThat(bookingDtoTest.get(0).getBookerId(), equalTo(bookingDto.getBookerId()));
         assertThat(bookingDtoTest.get(0).getStatus(), equalTo(bookingDto.getStatus()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAllBookingsByBooker_whenPagedByCursor_thenPagesDoNotOverlap() {
+        for (int i = 0; i < 5; i++) {
+            bookingDto.setStart(LocalDateTime.now().plusDays(i + 1));
+            bookingDto.setEnd(LocalDateTime.now().plusDays(i + 2));
+            bookingService.addBooking(userKris.getId(), bookingDto);
+        }
+
+        List<BookingDto> firstPage = bookingService.getAllBookingsByBooker(userKris.getId(), "ALL", null, 2);
+        List<BookingDto> secondPage = bookingService.getAllBookingsByBooker(userKris.getId(), "ALL",
+                BookingCursor.of(firstPage.get(1)), 2);
+        List<BookingDto> lastPage = bookingService.getAllBookingsByBooker(userKris.getId(), "ALL",
+                BookingCursor.of(secondPage.get(1)), 2);
+        List<BookingDto> offsetPage = bookingService.getAllBookingsByBooker(userKris.getId(), "ALL",
+                PageRequestUtil.createPageRequest(2, 2));
+
+        assertThat(firstPage.size(), equalTo(2));
+        assertThat(secondPage.size(), equalTo(2));
+        assertThat(lastPage.size(), equalTo(1));
+        assertThat(firstPage.get(1).getStart().isAfter(secondPage.get(0).getStart()), equalTo(true));
+        assertThat(secondPage.get(1).getStart().isAfter(lastPage.get(0).getStart()), equalTo(true));
+        assertThat(offsetPage.get(0).getId(), equalTo(secondPage.get(0).getId()));
+    }
+
+    @Test
+    void getAllBookings_whenPaged_thenFetchedRowsNeverExceedPageSize() {
+        for (int i = 0; i < 6; i++) {
+            bookingDto.setStart(LocalDateTime.now().plusDays(i + 1));
+            bookingDto.setEnd(LocalDateTime.now().plusDays(i + 2));
+            bookingService.addBooking(userKris.getId(), bookingDto);
+        }
+        entityManager.flush();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        knownUsers.requireExists(userKris.getId());
+        knownUsers.requireExists(user.getId());
+
+        for (String state : List.of("ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED")) {
+            entityManager.clear();
+            statistics.clear();
+
+            List<BookingDto> byBooker = bookingService.getAllBookingsByBooker(userKris.getId(), state,
+                    PageRequest.of(0, 2));
+            List<BookingDto> byOwner = bookingService.getAllBookingsByOwner(user.getId(), state,
+                    PageRequest.of(0, 2));
+
+            assertThat(byBooker.size(), lessThanOrEqualTo(2));
+            assertThat(byOwner.size(), equalTo(byBooker.size()));
+            assertThat(statistics.getEntityStatistics(Booking.class.getName()).getLoadCount(), equalTo(0L));
+            assertThat(statistics.getEntityStatistics(Item.class.getName()).getLoadCount(), equalTo(0L));
+            // пользователи уже подтверждены в KnownUsers: запросы только за страницами арендатора и владельца
+            assertThat(statistics.getPrepareStatementCount(), equalTo(2L));
+        }
+        assertThat(bookingService.getAllBookingsByBooker(userKris.getId(), "FUTURE", PageRequest.of(0, 2)).size(),
+                equalTo(2));
+        assertThat(bookingService.getAllBookingsByOwner(user.getId(), "WAITING", null).size(), equalTo(6));
+    }
+}
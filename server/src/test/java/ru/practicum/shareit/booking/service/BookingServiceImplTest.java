@@ -7,30 +7,48 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeResultDto;
 import ru.practicum.shareit.booking.enums.BookingStatus;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingInterval;
+import ru.practicum.shareit.booking.model.BookingView;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exceptions.BadRequestException;
+import ru.practicum.shareit.exceptions.BookingOverlapException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.UnsupportedStatusException;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingPointerService;
+import ru.practicum.shareit.item.service.ItemViewCache;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.model.UserDto;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.KnownUsers;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static ru.practicum.shareit.PageRequestUtil.createPageRequest;
 
@@ -43,6 +61,14 @@ class BookingServiceImplTest {
     private UserRepository userRepository;
     @Mock
     private ItemRepository itemRepository;
+    @Mock
+    private ItemBookingPointerService itemBookingPointerService;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Mock
+    private ItemViewCache itemViewCache;
+    @Mock
+    private KnownUsers knownUsers;
     @InjectMocks
     private BookingServiceImpl bookingService;
 
@@ -164,6 +190,7 @@ class BookingServiceImplTest {
         when(itemRepository.findById(anyLong())).thenReturn(Optional.ofNullable(item));
         when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
 
+        bookingDto.setEnd(LocalDateTime.now().plusMonths(2));
         bookingDto.setStart(bookingDto.getEnd().plusDays(2));
 
         BadRequestException thrown = Assertions.assertThrows(BadRequestException.class, () -> {
@@ -231,20 +258,188 @@ class BookingServiceImplTest {
 
     @Test
     void changeStatus_whenParamsValidated_thenReturnedBookingDto() {
-        when(bookingRepository.save(any())).thenReturn(booking);
+        when(bookingRepository.updateStatus(booking.getId(), user.getId(), BookingStatus.WAITING,
+                BookingStatus.APPROVED)).thenReturn(1);
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.ofNullable(booking));
+        when(bookingIntervalIndex.tryReserve(any())).thenReturn(true);
 
         booking.getItem().setOwner(user.getId());
-        bookingRepository.save(booking);
+        booking.setStatus(BookingStatus.APPROVED);
         BookingDto bookingDtoTest = bookingService.changeStatus(user.getId(), booking.getId(), true);
 
         assertEquals(1L, bookingDtoTest.getId());
         assertEquals(user.getId(), bookingDtoTest.getBookerId());
         assertEquals(BookingStatus.APPROVED, bookingDtoTest.getStatus());
+        verify(itemBookingPointerService).refresh(List.of(item.getId()));
+    }
+
+    @Test
+    void changeStatus_whenApprovedBookingOverlaps_thenThrownBadRequestException() {
+        when(bookingRepository.updateStatus(anyLong(), anyLong(), any(), any())).thenReturn(1);
+        when(bookingRepository.findById(anyLong())).thenReturn(Optional.ofNullable(booking));
+        when(bookingIntervalIndex.tryReserve(BookingInterval.of(booking))).thenReturn(false);
+
+        booking.getItem().setOwner(user.getId());
+
+        BadRequestException thrown = Assertions.assertThrows(BadRequestException.class, () -> {
+            bookingService.changeStatus(user.getId(), booking.getId(), true);
+        });
+
+        assertEquals("Бронирование пересекается с уже подтвержденным бронированием вещи", thrown.getMessage());
+        verify(itemBookingPointerService, never()).refresh(any());
+    }
+
+    @Test
+    void changeStatus_whenDatabaseRejectsOverlap_thenThrownBookingOverlapException() {
+        when(bookingRepository.updateStatus(anyLong(), anyLong(), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("overlap",
+                        new SQLException("conflicting key value violates exclusion constraint", "23P01")));
+
+        BookingOverlapException thrown = Assertions.assertThrows(BookingOverlapException.class, () ->
+                bookingService.changeStatus(user.getId(), booking.getId(), true));
+
+        assertEquals("Бронирование пересекается с уже подтвержденным бронированием вещи", thrown.getMessage());
+    }
+
+    @Test
+    void changeStatus_whenOtherIntegrityViolation_thenRethrown() {
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("not null",
+                new SQLException("null value in column", "23502"));
+        when(bookingRepository.updateStatus(anyLong(), anyLong(), any(), any())).thenThrow(violation);
+
+        DataIntegrityViolationException thrown = Assertions.assertThrows(DataIntegrityViolationException.class, () ->
+                bookingService.changeStatus(user.getId(), booking.getId(), true));
+
+        assertEquals(violation, thrown);
+    }
+
+    @Test
+    void changeStatus_whenStatusAlreadyRejected_thenThrownBadRequestException() {
+        when(bookingRepository.findById(anyLong())).thenReturn(Optional.ofNullable(booking));
+
+        booking.getItem().setOwner(user.getId());
+        booking.setStatus(BookingStatus.REJECTED);
+
+        BadRequestException thrown = Assertions.assertThrows(BadRequestException.class, () -> {
+            bookingService.changeStatus(user.getId(), booking.getId(), false);
+        });
+
+        assertEquals("Владелец вещи уже рассмотрел бронь вещи", thrown.getMessage());
+        verify(bookingRepository).updateStatus(booking.getId(), user.getId(), BookingStatus.WAITING,
+                BookingStatus.REJECTED);
+    }
+
+    @Test
+    void changeStatuses_whenSomeChangesInvalid_thenReturnedResultPerBooking() {
+        Booking foreign = booking.toBuilder().id(2L).item(item.toBuilder().owner(3L).build()).build();
+        Booking approved = booking.toBuilder().id(3L).status(BookingStatus.APPROVED).build();
+        booking.getItem().setOwner(user.getId());
+        when(bookingRepository.findAllWithItemById(any())).thenReturn(List.of(booking, foreign, approved));
+        when(bookingIntervalIndex.tryReserve(any())).thenReturn(true);
+        when(bookingRepository.updateStatuses(Map.of(1L, BookingStatus.APPROVED), BookingStatus.WAITING))
+                .thenReturn(new int[]{1});
+
+        List<BookingStatusChangeResultDto> results = bookingService.changeStatuses(user.getId(), List.of(
+                new BookingStatusChangeDto(1L, true),
+                new BookingStatusChangeDto(2L, true),
+                new BookingStatusChangeDto(3L, false),
+                new BookingStatusChangeDto(4L, false)));
+
+        assertEquals(BookingStatusChangeResultDto.applied(1L, BookingStatus.APPROVED), results.get(0));
+        assertEquals("Пользователь не является владельцем вещи для бронирования", results.get(1).getError());
+        assertEquals("Владелец вещи уже одобрил бронь вещи", results.get(2).getError());
+        assertEquals("Бронирование с id = 4 не найдено", results.get(3).getError());
+        verify(itemBookingPointerService).refresh(Set.of(item.getId()));
+    }
+
+    @Test
+    void changeStatuses_whenBookingChangedConcurrently_thenReservationReleased() {
+        booking.getItem().setOwner(user.getId());
+        when(bookingRepository.findAllWithItemById(any())).thenReturn(List.of(booking));
+        when(bookingIntervalIndex.tryReserve(any())).thenReturn(true);
+        when(bookingRepository.updateStatuses(any(), any())).thenReturn(new int[]{0});
+
+        List<BookingStatusChangeResultDto> results = bookingService.changeStatuses(user.getId(),
+                List.of(new BookingStatusChangeDto(1L, true)));
+
+        assertEquals("Владелец вещи уже рассмотрел бронь вещи", results.get(0).getError());
+        verify(bookingIntervalIndex).release(BookingInterval.of(booking));
+        verify(itemBookingPointerService, never()).refresh(any());
+    }
+
+    @Test
+    void changeStatuses_whenApprovalRejectedByDatabase_thenOnlyThatBookingFailed() {
+        Booking other = booking.toBuilder().id(2L).build();
+        booking.getItem().setOwner(user.getId());
+        when(bookingRepository.findAllWithItemById(any())).thenReturn(List.of(booking, other));
+        when(bookingIntervalIndex.tryReserve(any())).thenReturn(true);
+        when(bookingRepository.updateStatuses(any(), any()))
+                .thenReturn(new int[]{BookingRepository.APPROVED_OVERLAP, 1});
+
+        List<BookingStatusChangeResultDto> results = bookingService.changeStatuses(user.getId(), List.of(
+                new BookingStatusChangeDto(1L, true),
+                new BookingStatusChangeDto(2L, true)));
+
+        assertEquals("Бронирование пересекается с уже подтвержденным бронированием вещи", results.get(0).getError());
+        assertEquals(BookingStatusChangeResultDto.applied(2L, BookingStatus.APPROVED), results.get(1));
+        verify(bookingIntervalIndex).release(BookingInterval.of(booking));
+        verify(itemBookingPointerService).refresh(Set.of(item.getId()));
+    }
+
+    @Test
+    void addBookings_whenParamsValidated_thenItemsLoadedAtOnce() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
+        when(itemRepository.findAllById(Set.of(item.getId()))).thenReturn(List.of(item));
+        when(bookingRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        bookingDto.setStart(LocalDateTime.now().plusMonths(2));
+        bookingDto.setEnd(LocalDateTime.now().plusMonths(4));
+        BookingDto secondDto = bookingDto.toBuilder()
+                .start(bookingDto.getEnd().plusDays(1))
+                .end(bookingDto.getEnd().plusDays(2))
+                .build();
+
+        List<BookingDto> bookingDtos = bookingService.addBookings(user.getId(), List.of(bookingDto, secondDto));
+
+        assertEquals(2, bookingDtos.size());
+        assertEquals(BookingStatus.WAITING, bookingDtos.get(1).getStatus());
+        assertEquals(secondDto.getStart(), bookingDtos.get(1).getStart());
+        verify(itemRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void addBookings_whenItemNotFound_thenThrownNotFoundException() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
+        when(itemRepository.findAllById(any())).thenReturn(List.of());
+
+        NotFoundException thrown = Assertions.assertThrows(NotFoundException.class, () -> {
+            bookingService.addBookings(user.getId(), List.of(bookingDto));
+        });
+
+        assertEquals("Вещь с id = " + bookingDto.getItemId() + " не найдена", thrown.getMessage());
+        verify(bookingRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void addBooking_whenItemAlreadyBookedForDates_thenThrownBadRequestException() {
+        when(itemRepository.findById(anyLong())).thenReturn(Optional.ofNullable(item));
+        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
+        when(bookingIntervalIndex.overlaps(anyLong(), any(), any())).thenReturn(true);
+
+        bookingDto.setStart(LocalDateTime.now().plusMonths(2));
+        bookingDto.setEnd(LocalDateTime.now().plusMonths(4));
+
+        BadRequestException thrown = Assertions.assertThrows(BadRequestException.class, () -> {
+            bookingService.addBooking(user.getId(), bookingDto);
+        });
+
+        assertEquals("Вещь уже забронирована на указанные даты", thrown.getMessage());
     }
 
     @Test
     void getBooking_whenUserNotFound_thenThrowNotFoundException() {
+        doThrow(new NotFoundException("Пользователь с id = " + user.getId() + " не найден"))
+                .when(knownUsers).requireExists(anyLong());
         NotFoundException thrown = Assertions.assertThrows(NotFoundException.class, () -> {
             bookingService.getBooking(user.getId(), booking.getId());
         });
@@ -254,7 +449,6 @@ class BookingServiceImplTest {
 
     @Test
     void getBooking_whenBookingNotFound_thenThrowNotFoundException() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
 
         NotFoundException thrown = Assertions.assertThrows(NotFoundException.class, () -> {
             bookingService.getBooking(user.getId(), booking.getId());
@@ -265,7 +459,6 @@ class BookingServiceImplTest {
 
     @Test
     void getBooking_whenBookerOrOwnerNotEqualUser_thenThrowNotFoundException() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.ofNullable(booking));
 
         NotFoundException thrown = Assertions.assertThrows(NotFoundException.class, () -> {
@@ -278,7 +471,6 @@ class BookingServiceImplTest {
 
     @Test
     void getBooking_whenBookingIsValidated_thenReturnedBookingDto() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.ofNullable(booking));
 
         BookingDto bookingDtoTest = bookingService.getBooking(user.getId(), booking.getId());
@@ -290,6 +482,8 @@ class BookingServiceImplTest {
 
     @Test
     void getAllBookingsByBooker_whenUserNotFound_thenThrowNotFoundException() {
+        doThrow(new NotFoundException("Пользователь с id = " + user.getId() + " не найден"))
+                .when(knownUsers).requireExists(anyLong());
         NotFoundException thrown = Assertions.assertThrows(NotFoundException.class, () -> {
             bookingService.getAllBookingsByBooker(user.getId(), null, null);
         });
@@ -299,8 +493,7 @@ class BookingServiceImplTest {
 
     @Test
     void getAllBookingsByBooker_whenStateNull_thenReturnedListOfBookingDtoStateAll() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
-        when(bookingRepository.getBookingsByBookerId_OrderByStartDesc(anyLong(), any())).thenReturn(List.of(booking));
+        when(bookingRepository.findBookings(any(), any())).thenAnswer(invocation -> List.of(view(booking)));
 
         bookingRepository.save(booking);
         List<BookingDto> bookingDtos = bookingService.getAllBookingsByBooker(user.getId(), "ALL", PageRequest.of(0, 20));
@@ -312,8 +505,7 @@ class BookingServiceImplTest {
 
     @Test
     void getAllBookingsByBooker_whenStateNullAndPageRequestNull_thenReturnedListOfBookingDtoStateAll() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
-        when(bookingRepository.getBookingsByBookerId_OrderByStartDesc(anyLong())).thenReturn(List.of(booking));
+        when(bookingRepository.findBookings(any(), eq(Pageable.unpaged()))).thenAnswer(invocation -> List.of(view(booking)));
 
         bookingRepository.save(booking);
         List<BookingDto> bookingDtos = bookingService.getAllBookingsByBooker(user.getId(), "ALL", null);
@@ -325,8 +517,7 @@ class BookingServiceImplTest {
 
     @Test
     void getAllBookingsByBooker_whenStateNullAndPageRequestNotNull_thenReturnedListOfBookingDtoStateAll() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
-        when(bookingRepository.getBookingsByBookerId_OrderByStartDesc(anyLong(), any())).thenReturn(List.of(booking));
+        when(bookingRepository.findBookings(any(), any())).thenAnswer(invocation -> List.of(view(booking)));
 
         bookingRepository.save(booking);
         List<BookingDto> bookingDtos = bookingService.getAllBookingsByBooker(user.getId(), "ALL", PageRequest.of(0, 20));
@@ -338,8 +529,7 @@ class BookingServiceImplTest {
 
     @Test
     void getAllBookingsByBooker_whenStateCurrent_thenReturnedListOfBookingDtoStateCurrent() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
-        when(bookingRepository.getBookingsByBookerId_OrderByStart_Current(anyLong())).thenReturn(List.of(booking));
+        when(bookingRepository.findBookings(any(), any())).thenAnswer(invocation -> List.of(view(booking)));
 
         bookingDto.setStart(LocalDateTime.now().minusDays(2));
         bookingRepository.save(booking);
@@ -353,9 +543,8 @@ class BookingServiceImplTest {
 
     @Test
     void getAllBookingsByBooker_whenStatePast_thenReturnedListOfBookingDtoStatePast() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
         when(bookingRepository.save(any())).thenReturn(booking);
-        when(bookingRepository.getBookingsByBookerId_OrderByStart_Past(anyLong())).thenReturn(List.of(booking));
+        when(bookingRepository.findBookings(any(), any())).thenAnswer(invocation -> List.of(view(booking)));
 
         bookingDto.setStart(LocalDateTime.now().minusDays(2));
         bookingDto.setEnd(LocalDateTime.now().minusDays(1));
@@ -370,9 +559,8 @@ class BookingServiceImplTest {
 
     @Test
     void getAllBookingsByBooker_whenStateFuture_thenReturnedListOfBookingDtoStateFuture() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
         when(bookingRepository.save(any())).thenReturn(booking);
-        when(bookingRepository.getBookingsByBookerId_OrderByStart_Future(anyLong())).thenReturn(List.of(booking));
+        when(bookingRepository.findBookings(any(), any())).thenAnswer(invocation -> List.of(view(booking)));
 
         bookingDto.setStart(LocalDateTime.now().plusDays(2));
         bookingDto.setEnd(LocalDateTime.now().plusDays(3));
@@ -387,9 +575,8 @@ class BookingServiceImplTest {
 
     @Test
     void getAllBookingsByBooker_whenStatusWaiting_thenReturnedListOfBookingDtoStatusWaiting() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
         when(bookingRepository.save(any())).thenReturn(booking);
-        when(bookingRepository.getBookingsByBookerId_OrderByBookerId(anyLong(), any())).thenReturn(List.of(booking));
+        when(bookingRepository.findBookings(any(), any())).thenAnswer(invocation -> List.of(view(booking)));
 
         bookingRepository.save(booking);
         List<BookingDto> bookingDtos = bookingService.getAllBookingsByBooker(user.getId(), "WAITING", PageRequest.of(0, 20));
@@ -401,9 +588,8 @@ class BookingServiceImplTest {
 
     @Test
     void getAllBookingsByBooker_whenStatusRejected_thenReturnedListOfBookingDtoStatusRejected() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
         when(bookingRepository.save(any())).thenReturn(booking);
-        when(bookingRepository.getBookingsByBookerId_OrderByBookerId(anyLong(), any())).thenReturn(List.of(booking));
+        when(bookingRepository.findBookings(any(), any())).thenAnswer(invocation -> List.of(view(booking)));
 
         booking.setStatus(BookingStatus.REJECTED);
         bookingRepository.save(booking);
@@ -417,7 +603,6 @@ class BookingServiceImplTest {
 
     @Test
     void getAllBookingsByBooker_whenUnsupportedStatus_thenUnsupportedStatusException() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
 
         UnsupportedStatusException thrown = Assertions.assertThrows(UnsupportedStatusException.class, () -> {
             bookingService.getAllBookingsByBooker(user.getId(), "UNSUPPORTED_STATUS", null);
@@ -428,6 +613,8 @@ class BookingServiceImplTest {
 
     @Test
     void getAllBookingsByOwner_whenUserNotFound_thenThrowNotFoundException() {
+        doThrow(new NotFoundException("Пользователь с id = " + user.getId() + " не найден"))
+                .when(knownUsers).requireExists(anyLong());
         NotFoundException thrown = Assertions.assertThrows(NotFoundException.class, () -> {
             bookingService.getAllBookingsByOwner(user.getId(), null, null);
         });
@@ -437,9 +624,8 @@ class BookingServiceImplTest {
 
     @Test
     void getAllBookingsByOwner_whenStateNull_thenReturnedListOfBookingDtoStateAll() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
         when(bookingRepository.save(any())).thenReturn(booking);
-        when(bookingRepository.getBookingsByItemOwnerOrderByStartDesc(anyLong(), any())).thenReturn(List.of(booking));
+        when(bookingRepository.findBookings(any(), any())).thenAnswer(invocation -> List.of(view(booking)));
 
         bookingDto.getItem().setId(item.getId());
         bookingRepository.save(booking);
@@ -452,9 +638,8 @@ class BookingServiceImplTest {
 
     @Test
     void getAllBookingsByOwner_whenStateNullAndPageRequestNull_thenReturnedListOfBookingDtoStateAll() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
         when(bookingRepository.save(any())).thenReturn(booking);
-        when(bookingRepository.getBookingsByItemOwnerOrderByStartDesc(anyLong())).thenReturn(List.of(booking));
+        when(bookingRepository.findBookings(any(), eq(Pageable.unpaged()))).thenAnswer(invocation -> List.of(view(booking)));
 
         bookingDto.getItem().setId(item.getId());
         bookingRepository.save(booking);
@@ -467,9 +652,8 @@ class BookingServiceImplTest {
 
     @Test
     void getAllBookingsByOwner_whenStateNullAndPageRequestNotNull_thenReturnedListOfBookingDtoStateAll() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
         when(bookingRepository.save(any())).thenReturn(booking);
-        when(bookingRepository.getBookingsByItemOwnerOrderByStartDesc(anyLong(), any())).thenReturn(List.of(booking));
+        when(bookingRepository.findBookings(any(), any())).thenAnswer(invocation -> List.of(view(booking)));
 
         bookingDto.getItem().setId(item.getId());
         bookingRepository.save(booking);
@@ -482,9 +666,8 @@ class BookingServiceImplTest {
 
     @Test
     void getAllBookingsByOwner_whenStateCurrent_thenReturnedListOfBookingDtoStateCurrent() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
         when(bookingRepository.save(any())).thenReturn(booking);
-        when(bookingRepository.getBookingsByOwnerAndStatus_Current(anyLong())).thenReturn(List.of(booking));
+        when(bookingRepository.findBookings(any(), any())).thenAnswer(invocation -> List.of(view(booking)));
 
         bookingDto.setStart(LocalDateTime.now().minusMonths(4));
         bookingDto.setEnd(LocalDateTime.now().plusDays(2));
@@ -499,9 +682,8 @@ class BookingServiceImplTest {
 
     @Test
     void getAllBookingsByOwner_whenStatePast_thenReturnedListOfBookingDtoStatePast() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
         when(bookingRepository.save(any())).thenReturn(booking);
-        when(bookingRepository.getBookingsByOwnerAndStatus_Past(anyLong())).thenReturn(List.of(booking));
+        when(bookingRepository.findBookings(any(), any())).thenAnswer(invocation -> List.of(view(booking)));
 
         bookingDto.setStart(LocalDateTime.now().minusMonths(4));
         bookingDto.setEnd(LocalDateTime.now().minusMonths(2));
@@ -520,7 +702,7 @@ class BookingServiceImplTest {
         when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
         when(itemRepository.findById(anyLong())).thenReturn(Optional.ofNullable(item));
         when(bookingRepository.save(any())).thenReturn(booking);
-        when(bookingRepository.getBookingsByOwnerAndStatus_Future(anyLong())).thenReturn(List.of(booking));
+        when(bookingRepository.findBookings(any(), any())).thenAnswer(invocation -> List.of(view(booking)));
 
         bookingDto.setStart(LocalDateTime.now().plusMonths(2));
         bookingDto.setEnd(LocalDateTime.now().plusMonths(4));
@@ -539,7 +721,7 @@ class BookingServiceImplTest {
         when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
         when(itemRepository.findById(anyLong())).thenReturn(Optional.ofNullable(item));
         when(bookingRepository.save(any())).thenReturn(booking);
-        when(bookingRepository.getBookingByOwnerAndStatus(anyLong(), any())).thenReturn(List.of(booking));
+        when(bookingRepository.findBookings(any(), any())).thenAnswer(invocation -> List.of(view(booking)));
 
         bookingDto.setStart(LocalDateTime.now().plusMonths(2));
         bookingDto.setEnd(LocalDateTime.now().plusMonths(4));
@@ -559,13 +741,15 @@ class BookingServiceImplTest {
         when(itemRepository.findById(anyLong())).thenReturn(Optional.ofNullable(item));
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.ofNullable(booking));
         when(bookingRepository.save(any())).thenReturn(booking);
-        when(bookingRepository.getBookingByOwnerAndStatus(anyLong(), any())).thenReturn(List.of(booking));
+        when(bookingRepository.findBookings(any(), any())).thenAnswer(invocation -> List.of(view(booking)));
 
         bookingDto.setStart(LocalDateTime.now().plusMonths(2));
         bookingDto.setEnd(LocalDateTime.now().plusMonths(4));
         bookingDto.getItem().setId(item.getId());
 
         bookingService.addBooking(user.getId(), bookingDto);
+        when(bookingRepository.updateStatus(anyLong(), anyLong(), any(), any())).thenReturn(1);
+        booking.setStatus(BookingStatus.REJECTED);
         bookingService.changeStatus(2L, bookingDto.getId(), false);
 
         List<BookingDto> bookingDtos = bookingService.getAllBookingsByOwner(user.getId(), "REJECTED", PageRequest.of(0, 20));
@@ -577,7 +761,6 @@ class BookingServiceImplTest {
 
     @Test
     void getAllBookingsByOwner_whenUnsupportedStatus_thenUnsupportedStatusException() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
 
         user.setId(2L);
         UnsupportedStatusException thrown = Assertions.assertThrows(UnsupportedStatusException.class, () -> {
@@ -614,11 +797,91 @@ class BookingServiceImplTest {
 
     @Test
     void createPageRequest_whenFromOrSizeEqualZero_thenReturnedPageRequest() {
-        int pageNumber = (int) (1L / 20L);
-        PageRequest pageRequestTest = PageRequest.of(pageNumber, Math.toIntExact(20L));
-
         PageRequest pageRequest = createPageRequest(1, 20);
 
-        assertEquals(pageRequestTest, pageRequest);
+        assertEquals(1L, pageRequest.getOffset());
+        assertEquals(20, pageRequest.getPageSize());
+    }
+
+    @Test
+    void createPageRequest_whenFromNotMultipleOfSize_thenOffsetEqualsFrom() {
+        PageRequest pageRequest = createPageRequest(15, 10);
+
+        assertEquals(15L, pageRequest.getOffset());
+        assertEquals(25L, pageRequest.next().getOffset());
+        assertEquals(5L, pageRequest.previous().getOffset());
+    }
+
+    @Test
+    void getAllBookingsByBooker_whenCursorNull_thenReturnedFirstPage() {
+        when(bookingRepository.findBookings(any(), any())).thenAnswer(invocation -> List.of(view(booking)));
+
+        List<BookingDto> bookingDtos = bookingService.getAllBookingsByBooker(user.getId(), "ALL", null, 1);
+
+        assertEquals(1, bookingDtos.size());
+        assertEquals(1L, bookingDtos.get(0).getId());
+    }
+
+    @Test
+    void getAllBookingsByBooker_whenCursorPresent_thenReturnedPageAfterCursor() {
+        BookingCursor cursor = new BookingCursor(booking.getStart().plusDays(1), 5L);
+        when(bookingRepository.findBookings(any(), eq(PageRequest.of(0, 10)))).thenAnswer(invocation -> List.of(view(booking)));
+
+        List<BookingDto> bookingDtos = bookingService.getAllBookingsByBooker(user.getId(), "ALL", cursor, 10);
+
+        assertEquals(1L, bookingDtos.get(0).getId());
+    }
+
+    @Test
+    void getAllBookingsByOwner_whenCursorPresent_thenReturnedPageAfterCursor() {
+        BookingCursor cursor = new BookingCursor(booking.getStart().plusDays(1), 5L);
+        when(bookingRepository.findBookings(any(), eq(PageRequest.of(0, 10)))).thenAnswer(invocation -> List.of(view(booking)));
+
+        List<BookingDto> bookingDtos = bookingService.getAllBookingsByOwner(user.getId(), "ALL", cursor, 10);
+
+        assertEquals(1L, bookingDtos.get(0).getId());
+    }
+
+    @Test
+    void getAllBookingsByOwner_whenCursorAndStatePast_thenReturnedPageAfterCursor() {
+        when(bookingRepository.findBookings(any(), eq(PageRequest.of(0, 10)))).thenAnswer(invocation -> List.of(view(booking)));
+
+        List<BookingDto> bookingDtos = bookingService.getAllBookingsByOwner(user.getId(), "PAST",
+                new BookingCursor(booking.getStart(), 5L), 10);
+
+        assertEquals(1L, bookingDtos.get(0).getId());
+    }
+
+    @Test
+    void getAllBookingsByOwner_whenStateApproved_thenUnsupportedStatusException() {
+
+        UnsupportedStatusException thrown = Assertions.assertThrows(UnsupportedStatusException.class, () -> {
+            bookingService.getAllBookingsByOwner(user.getId(), "APPROVED", PageRequest.of(0, 20));
+        });
+
+        assertEquals("Unknown state: UNSUPPORTED_STATUS", thrown.getMessage());
+    }
+
+    @Test
+    void bookingCursor_whenEncoded_thenDecodedToSameCursor() {
+        BookingCursor cursor = new BookingCursor(LocalDateTime.of(2023, 5, 30, 12, 0, 15), 42L);
+
+        assertEquals(cursor, BookingCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void bookingCursor_whenTokenMalformed_thenThrownBadRequestException() {
+        BadRequestException thrown = Assertions.assertThrows(BadRequestException.class, () -> {
+            BookingCursor.decode("not-a-cursor");
+        });
+
+        assertEquals("Некорректный курсор пагинации: not-a-cursor", thrown.getMessage());
+    }
+
+    private static BookingView view(Booking booking) {
+        return new BookingView(booking.getId(), booking.getStart(), booking.getEnd(), booking.getStatus(),
+                booking.getItem().getId(), booking.getItem().getName(), booking.getItem().getDescription(),
+                booking.getItem().getAvailable(), booking.getItem().getRequestId(),
+                booking.getBooker().getId(), booking.getBooker().getName(), booking.getBooker().getEmail());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,98 @@
+package ru.practicum.shareit.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Без @Transactional: кэш второго уровня наполняется и сбрасывается только при коммите.
+ */
+@SpringBootTest(
+        properties = {"db.name=test", "shareit.cache.statistics=true"},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class SecondLevelCacheItTest {
+
+    private final UserService userService;
+    private final ItemService itemService;
+    private final EntityManagerFactory entityManagerFactory;
+    private final SecondLevelCacheMetrics secondLevelCacheMetrics;
+    private Statistics statistics;
+    private UserDto owner;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        owner = userService.createUser(new UserDto(null, "Anna", "test@test.ru"));
+    }
+
+    @Test
+    void getItem_whenItemEdited_thenCachedItemReplaced() {
+        ItemDto item = itemService.addItem(owner.getId(), itemDto("Качели"));
+        statistics.clear();
+
+        itemService.getItem(owner.getId(), item.getId());
+        itemService.editItem(owner.getId(), item.getId(), new ItemDto(null, "Садовые качели", null, null, null,
+                null, null, new ArrayList<>()));
+
+        assertThat(itemService.getItem(owner.getId(), item.getId()).getName(), equalTo("Садовые качели"));
+        assertThat(statistics.getCacheRegionStatistics(CacheRegions.ITEMS).getHitCount(), greaterThan(0L));
+        assertThat(secondLevelCacheMetrics.hitRatio(CacheRegions.ITEMS), greaterThan(0.0));
+    }
+
+    @Test
+    void getUser_whenUserUpdatedOrDeleted_thenCachedUserReplaced() {
+        UserDto user = userService.createUser(new UserDto(null, "Kristina", "kristina@test.ru"));
+        statistics.clear();
+
+        userService.getUser(user.getId());
+        userService.updateUser(user.getId(), new UserDto(null, "Kris", null));
+
+        assertThat(userService.getUser(user.getId()).getName(), equalTo("Kris"));
+        assertThat(statistics.getCacheRegionStatistics(CacheRegions.USERS).getHitCount(), greaterThan(0L));
+
+        userService.deleteUser(user.getId());
+
+        assertThrows(NotFoundException.class, () -> userService.getUser(user.getId()));
+    }
+
+    @Test
+    void getItemsByUser_whenItemAdded_thenCachedQueryResultDropped() {
+        itemService.addItem(owner.getId(), itemDto("Качели"));
+        itemService.getItemsByUser(owner.getId(), null);
+        itemService.getItemsByUser(owner.getId(), null);
+
+        assertThat(statistics.getCacheRegionStatistics(CacheRegions.ITEMS_BY_OWNER).getHitCount(), greaterThan(0L));
+
+        itemService.addItem(owner.getId(), itemDto("Дрель"));
+
+        assertThat(itemService.getItemsByUser(owner.getId(), null).stream()
+                .map(ItemDto::getName)
+                .collect(Collectors.toList()), equalTo(List.of("Качели", "Дрель")));
+    }
+
+    private static ItemDto itemDto(String name) {
+        return new ItemDto(null, name, name + " в хорошем состоянии", true, null, null, null, new ArrayList<>());
+    }
+}
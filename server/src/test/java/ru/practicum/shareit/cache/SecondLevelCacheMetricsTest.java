@@ -0,0 +1,52 @@
+package ru.practicum.shareit.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SecondLevelCacheMetricsTest {
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+    @Mock
+    private SessionFactory sessionFactory;
+    @Mock
+    private Statistics statistics;
+
+    @Test
+    void bindTo_whenStatisticsDisabled_thenNoMetersRegistered() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        metrics(false).bindTo(registry);
+
+        assertThat(registry.getMeters(), empty());
+    }
+
+    @Test
+    void bindTo_whenStatisticsEnabled_thenMetersRegisteredPerRegion() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        metrics(true).bindTo(registry);
+
+        assertThat(registry.find("shareit.cache.l2.hit.ratio").gauges(), hasSize(CacheRegions.ALL.size()));
+    }
+
+    private SecondLevelCacheMetrics metrics(boolean statisticsEnabled) {
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getStatistics()).thenReturn(statistics);
+        when(statistics.isStatisticsEnabled()).thenReturn(statisticsEnabled);
+        return new SecondLevelCacheMetrics(entityManagerFactory);
+    }
+}
@@ -11,9 +11,11 @@ import org.springframework.boot.test.autoconfigure.json.AutoConfigureJsonTesters
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.model.User;
 
@@ -21,6 +23,7 @@ import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
@@ -29,6 +32,8 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -104,6 +109,20 @@ class ItemControllerTest {
         verify(itemService, times(1)).editItem(anyLong(), anyLong(), any());
     }
 
+    @SneakyThrows
+    @Test
+    void editItem_whenItemChangedConcurrently_thenConflict() {
+        when(itemService.editItem(anyLong(), anyLong(), any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Item.class, itemDto.getId()));
+
+        mockMvc.perform(patch("/items/{itemId}", itemDto.getId())
+                        .header(header, 1L)
+                        .content(objectMapper.writeValueAsString(itemDto))
+                        .contentType("application/json"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error", is("Объект изменен другим запросом, повторите попытку")));
+    }
+
     @SneakyThrows
     @Test
     void getItemsByUser_whenUserIsValidated_thenReturnListOfItems() {
@@ -124,6 +143,35 @@ class ItemControllerTest {
                 .andExpect((jsonPath("$[0].comments", is(itemDto.getComments()))));
     }
 
+    @SneakyThrows
+    @Test
+    void getItem_whenIfNoneMatchEqualsRevision_thenNotModifiedWithoutAssembly() {
+        when(itemService.getItemRevision(anyLong(), anyLong())).thenReturn(Optional.of("3-0"));
+
+        mockMvc.perform(get("/items/{itemId}", itemDto.getId())
+                        .header(header, 1L)
+                        .header("If-None-Match", "W/\"3-0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "W/\"3-0\""))
+                .andExpect(content().string(""));
+
+        verify(itemService, never()).getItem(anyLong(), anyLong());
+    }
+
+    @SneakyThrows
+    @Test
+    void getItem_whenRevisionChanged_thenItemReturnedWithNewETag() {
+        when(itemService.getItemRevision(anyLong(), anyLong())).thenReturn(Optional.of("4-0"));
+        when(itemService.getItem(anyLong(), anyLong())).thenReturn(itemDto);
+
+        mockMvc.perform(get("/items/{itemId}", itemDto.getId())
+                        .header(header, 1L)
+                        .header("If-None-Match", "W/\"3-0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"4-0\""))
+                .andExpect(jsonPath("$.id", is(itemDto.getId()), Long.class));
+    }
+
     @SneakyThrows
     @Test
     void getItem_whenItemExists_thenReturnItemDto() {
@@ -143,10 +191,39 @@ class ItemControllerTest {
                 .andExpect((jsonPath("$.comments", is(itemDto.getComments()))));
     }
 
+    @SneakyThrows
+    @Test
+    void suggest_whenPrefixGiven_thenReturnNames() {
+        when(itemService.suggest(1L, "кач", 10)).thenReturn(List.of("Качели"));
+
+        mockMvc.perform(get("/items/suggest")
+                        .header(header, 1L)
+                        .param("prefix", "кач")
+                        .contentType("application/json"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0]", is("Качели")));
+    }
+
+    @SneakyThrows
+    @Test
+    void searchForItems_whenFuzzy_thenFuzzySearchUsed() {
+        when(itemService.fuzzySearchForItems(anyLong(), anyString(), any(), any(), any())).thenReturn(List.of(itemDto));
+
+        mockMvc.perform(get("/items/search")
+                        .header(header, 1L)
+                        .param("text", "Кочели")
+                        .param("fuzzy", "true")
+                        .contentType("application/json"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(itemDto.getId()), Long.class));
+    }
+
     @SneakyThrows
     @Test
     void searchForItems_whenSearchTextIsNotBlank_ThenReturnListOfItems() {
-        when(itemService.searchForItems(anyLong(), anyString(), any())).thenReturn(List.of(itemDto));
+        when(itemService.searchForItems(anyLong(), anyString(), any(), any(), any())).thenReturn(List.of(itemDto));
 
         mockMvc.perform(get("/items/search")
                         .header(header, 1L)
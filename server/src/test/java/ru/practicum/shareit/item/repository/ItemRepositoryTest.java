@@ -5,14 +5,26 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItems;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
 class ItemRepositoryTest {
@@ -21,6 +33,10 @@ class ItemRepositoryTest {
     private ItemRepository itemRepository;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private EntityManager entityManager;
     private User user;
     private Item item;
 
@@ -32,15 +48,191 @@ class ItemRepositoryTest {
 
     @Test
     void search() {
-        userRepository.save(user);
-        itemRepository.save(item);
+        user = userRepository.save(user);
+        item.setOwner(user.getId());
+        item = itemRepository.save(item);
         PageRequest pageRequest = PageRequest.of(0, 20);
         String text = "Качели";
-        List<Item> items = itemRepository.search(text,pageRequest);
+        List<Item> items = itemRepository.search(text, null, null, pageRequest).getContent();
 
         assertFalse(items.isEmpty());
         assertEquals(1, items.size());
-        assertEquals(1L, items.get(0).getId());
+        assertEquals(item.getId(), items.get(0).getId());
+    }
+
+    @Test
+    void search_whenTextInMiddleOfDescription_thenFoundIgnoringCase() {
+        User owner = userRepository.save(new User(null, "Boris", "boris@test.ru"));
+        itemRepository.save(new Item(null, "Качели", "Качели для малышей", true, owner.getId(), null));
+
+        List<Item> items = itemRepository.search("МАЛЫШ", null, null, PageRequest.of(0, 10)).getContent();
+
+        assertEquals(1, items.size());
+    }
+
+    @Test
+    void search_whenTextInNameOfLaterItem_thenNameMatchFirst() {
+        User owner = userRepository.save(new User(null, "Boris", "boris@test.ru"));
+        Item drills = itemRepository.save(new Item(null, "Набор сверл", "Сверла для дрели", true, owner.getId(),
+                null));
+        Item drill = itemRepository.save(new Item(null, "Дрель", "Аккумуляторная дрель", true, owner.getId(), null));
+
+        List<Item> items = itemRepository.search("дрел", null, null, PageRequest.of(0, 10)).getContent();
+
+        assertEquals(List.of(drill.getId(), drills.getId()),
+                items.stream().map(Item::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void search_whenMoreMatchesThanPageSize_thenSliceHasNextWithoutCount() {
+        User owner = userRepository.save(new User(null, "Boris", "boris@test.ru"));
+        for (int i = 0; i < 3; i++) {
+            itemRepository.save(new Item(null, "Качели " + i, "Качели для малышей", true, owner.getId(), null));
+        }
+
+        Slice<Item> first = itemRepository.search("качели", null, null, PageRequest.of(0, 2));
+        Slice<Item> last = itemRepository.search("качели", null, null, PageRequest.of(1, 2));
+
+        assertEquals(2, first.getNumberOfElements());
+        assertTrue(first.hasNext());
+        assertEquals(1, last.getNumberOfElements());
+        assertFalse(last.hasNext());
     }
 
-}
\ No newline at end of file
+    @Test
+    void search_whenPeriodGiven_thenItemsWithOverlappingApprovedBookingExcluded() {
+        User owner = userRepository.save(new User(null, "Boris", "boris@test.ru"));
+        User booker = userRepository.save(new User(null, "Kristina", "kristina@test.ru"));
+        Item booked = itemRepository.save(new Item(null, "Качели", "Качели для малышей", true, owner.getId(), null));
+        Item waiting = itemRepository.save(new Item(null, "Качели", "Садовые качели", true, owner.getId(), null));
+        Item free = itemRepository.save(new Item(null, "Качели", "Качели на цепях", true, owner.getId(), null));
+        LocalDateTime start = LocalDateTime.now().plusDays(10).withNano(0);
+        bookingRepository.save(new Booking(null, start.minusDays(1), start.plusDays(1), booked, booker, null,
+                BookingStatus.APPROVED));
+        bookingRepository.save(new Booking(null, start, start.plusDays(2), waiting, booker, null,
+                BookingStatus.WAITING));
+        bookingRepository.save(new Booking(null, start.minusDays(5), start, free, booker, null,
+                BookingStatus.APPROVED));
+
+        List<Item> items = itemRepository.search("качели", start, start.plusDays(2), PageRequest.of(0, 10))
+                .getContent();
+
+        assertEquals(List.of(waiting.getId(), free.getId()),
+                items.stream().map(Item::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void fuzzySearch_whenNameMisspelled_thenItemFound() {
+        User owner = userRepository.save(new User(null, "Boris", "boris@test.ru"));
+        Item swing = itemRepository.save(new Item(null, "Качели", "Качели для малышей", true, owner.getId(), null));
+        itemRepository.save(new Item(null, "Дрель", "Аккумуляторная дрель", true, owner.getId(), null));
+
+        List<Item> items = itemRepository.fuzzySearch("кочели", null, null, PageRequest.of(0, 10)).getContent();
+
+        assertEquals(1, items.size());
+        assertEquals(swing.getId(), items.get(0).getId());
+    }
+
+    @Test
+    void findNamesByPrefix_whenSameNames_thenMostFrequentFirst() {
+        User owner = userRepository.save(new User(null, "Boris", "boris@test.ru"));
+        itemRepository.save(new Item(null, "Качалка", "Кресло-качалка", true, owner.getId(), null));
+        itemRepository.save(new Item(null, "Качели", "Качели для малышей", true, owner.getId(), null));
+        itemRepository.save(new Item(null, "Качели", "Садовые качели", true, owner.getId(), null));
+        itemRepository.save(new Item(null, "Качели", "Сломанные качели", false, owner.getId(), null));
+
+        assertEquals(List.of("Качели", "Качалка"), itemRepository.findNamesByPrefix("кач", PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void findNamesByPrefix_whenNameWithYo_thenFoundByNormalizedPrefix() {
+        User owner = userRepository.save(new User(null, "Boris", "boris@test.ru"));
+        itemRepository.save(new Item(null, "Ёлка", "Искусственная ёлка", true, owner.getId(), null));
+
+        assertEquals(List.of("Ёлка"), itemRepository.findNamesByPrefix("ел", PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void fuzzySearch_whenBestMatchBeyondFirstCandidateBatch_thenRankedFirstAndPagesConsistent() {
+        User owner = userRepository.save(new User(null, "Boris", "boris@test.ru"));
+        List<Item> swings = new ArrayList<>();
+        for (int i = 0; i < 1100; i++) {
+            swings.add(new Item(null, "Качели", "Качели для малышей", true, owner.getId(), null));
+        }
+        itemRepository.saveAll(swings);
+        Item exact = itemRepository.save(new Item(null, "Кочели", "Кочели на цепях", true, owner.getId(), null));
+
+        Slice<Item> first = itemRepository.fuzzySearch("кочели", null, null, PageRequest.of(0, 10));
+        Slice<Item> last = itemRepository.fuzzySearch("кочели", null, null, PageRequest.of(110, 10));
+
+        assertEquals(exact.getId(), first.getContent().get(0).getId());
+        assertTrue(first.hasNext());
+        assertEquals(1, last.getContent().size());
+        assertFalse(last.hasNext());
+    }
+
+    @Test
+    void fuzzySearch_whenNameWithYoMisspelled_thenItemFoundAmongPrefilteredCandidates() {
+        User owner = userRepository.save(new User(null, "Boris", "boris@test.ru"));
+        Item tree = itemRepository.save(new Item(null, "Ёлка", "Искусственная ёлка", true, owner.getId(), null));
+        itemRepository.save(new Item(null, "Дрель", "Аккумуляторная дрель", true, owner.getId(), null));
+
+        List<Item> items = itemRepository.fuzzySearch("елко", null, null, PageRequest.of(0, 10)).getContent();
+
+        assertEquals(List.of(tree.getId()), items.stream().map(Item::getId).collect(Collectors.toList()));
+        assertTrue(itemRepository.fuzzySearch("!!!", null, null, PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void findAllAfter_whenLastIdGiven_thenNextItemsInIdOrder() {
+        User owner = userRepository.save(new User(null, "Boris", "boris@test.ru"));
+        Item first = itemRepository.save(new Item(null, "Качели", "Качели для малышей", true, owner.getId(), null));
+        Item second = itemRepository.save(new Item(null, "Дрель", "Аккумуляторная дрель", true, owner.getId(), null));
+        Item third = itemRepository.save(new Item(null, "Пила", "Ручная пила", false, owner.getId(), null));
+
+        List<Item> items = itemRepository.findAllAfter(first.getId(), PageRequest.of(0, 1));
+
+        assertEquals(List.of(second.getId()), items.stream().map(Item::getId).collect(Collectors.toList()));
+        assertEquals(List.of(third.getId()), itemRepository.findAllAfter(second.getId(), PageRequest.of(0, 1))
+                .stream().map(Item::getId).collect(Collectors.toList()));
+        assertTrue(itemRepository.findAllAfter(third.getId(), PageRequest.of(0, 1)).isEmpty());
+    }
+
+    @Test
+    void toPrefixTsQuery_whenTextContainsOperators_thenOnlyWordsKept() {
+        assertEquals("дрель:* & 18v:*", ItemRepositoryCustomImpl.toPrefixTsQuery(" Дрель & !18V:* "));
+        assertEquals("", ItemRepositoryCustomImpl.toPrefixTsQuery("&|!"));
+        assertEquals("елка:*", ItemRepositoryCustomImpl.toPrefixTsQuery("Ёлка"));
+    }
+
+    @Test
+    void explain_whenOwnerItemsSelected_thenOwnerIndexUsed() {
+        String plan = explain("select i.id from items i where i.owner_id = 1 and i.id > 0 order by i.id");
+
+        assertThat(plan, containsString("IX_ITEMS_OWNER"));
+    }
+
+    @Test
+    void explain_whenRequestItemsSelected_thenRequestIndexUsed() {
+        String plan = explain("select i.id from items i where i.request_id in (1, 2)");
+
+        assertThat(plan, containsString("IX_ITEMS_REQUEST"));
+    }
+
+    @Test
+    void migrations_whenApplied_thenItemIndexesCreated() {
+        assertThat(indexes("ITEMS"), hasItems("IX_ITEMS_OWNER", "IX_ITEMS_REQUEST"));
+    }
+
+    private String explain(String sql) {
+        return entityManager.createNativeQuery("explain " + sql).getSingleResult().toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> indexes(String table) {
+        return entityManager.createNativeQuery("select index_name from information_schema.indexes " +
+                        "where table_name = ?1")
+                .setParameter(1, table)
+                .getResultList();
+    }
+}
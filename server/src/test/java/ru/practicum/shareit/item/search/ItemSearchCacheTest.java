@@ -0,0 +1,109 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemSearchCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private ItemSearchCache itemSearchCache;
+
+    @BeforeEach
+    void setUp() {
+        itemSearchCache = new ItemSearchCache(10, Duration.ofSeconds(60), clock::get);
+    }
+
+    @Test
+    void get_whenSameQueryInOtherCase_thenCachedPageReturned() {
+        itemSearchCache.put(ItemSearchCache.key(false, "Дрель", 0, 10), List.of(2L, 1L), 0);
+
+        assertEquals(Optional.of(List.of(2L, 1L)),
+                itemSearchCache.get(ItemSearchCache.key(false, " дрель ", 0, 10)));
+        assertTrue(itemSearchCache.get(ItemSearchCache.key(false, "дрель", 10, 10)).isEmpty());
+        assertTrue(itemSearchCache.get(ItemSearchCache.key(true, "дрель", 0, 10)).isEmpty());
+    }
+
+    @Test
+    void get_whenTtlPassed_thenExpired() {
+        itemSearchCache.put(ItemSearchCache.key(false, "дрель", 0, 10), List.of(1L), 0);
+        clock.addAndGet(Duration.ofSeconds(60).toNanos());
+
+        assertTrue(itemSearchCache.get(ItemSearchCache.key(false, "дрель", 0, 10)).isEmpty());
+        assertEquals(0, itemSearchCache.weight());
+    }
+
+    @Test
+    void put_whenWeightExceeded_thenLeastRecentlyUsedEvicted() {
+        itemSearchCache.put(ItemSearchCache.key(false, "дрель", 0, 10), List.of(1L, 2L, 3L), 0);
+        itemSearchCache.put(ItemSearchCache.key(false, "пила", 0, 10), List.of(4L, 5L, 6L), 0);
+        itemSearchCache.get(ItemSearchCache.key(false, "дрель", 0, 10));
+        itemSearchCache.put(ItemSearchCache.key(false, "качели", 0, 10), List.of(7L, 8L), 0);
+
+        assertTrue(itemSearchCache.get(ItemSearchCache.key(false, "пила", 0, 10)).isEmpty());
+        assertEquals(Optional.of(List.of(1L, 2L, 3L)), itemSearchCache.get(ItemSearchCache.key(false, "дрель", 0, 10)));
+        assertEquals(7, itemSearchCache.weight());
+    }
+
+    @Test
+    void invalidate_whenItemSharesQueryTrigram_thenOnlyMatchingPagesDropped() {
+        itemSearchCache.put(ItemSearchCache.key(false, "дрель", 0, 10), List.of(1L), 0);
+        itemSearchCache.put(ItemSearchCache.key(false, "дрели", 0, 10), List.of(1L), 0);
+        itemSearchCache.put(ItemSearchCache.key(true, "дрэль", 0, 10), List.of(1L), 0);
+        itemSearchCache.put(ItemSearchCache.key(false, "качели", 0, 10), List.of(2L), 0);
+
+        itemSearchCache.invalidate(new Item(3L, "Дрель ударная", "Ударная дрель", true, 1L, null));
+
+        assertTrue(itemSearchCache.get(ItemSearchCache.key(false, "дрель", 0, 10)).isEmpty());
+        assertTrue(itemSearchCache.get(ItemSearchCache.key(false, "дрели", 0, 10)).isEmpty());
+        assertTrue(itemSearchCache.get(ItemSearchCache.key(true, "дрэль", 0, 10)).isEmpty());
+        assertEquals(Optional.of(List.of(2L)), itemSearchCache.get(ItemSearchCache.key(false, "качели", 0, 10)));
+    }
+
+    @Test
+    void invalidate_whenQueryShorterThanTrigram_thenPageAlwaysDropped() {
+        itemSearchCache.put(ItemSearchCache.key(false, "ел", 0, 10), List.of(1L), 0);
+
+        itemSearchCache.invalidate(new Item(3L, "Самокат", "Детский самокат", true, 1L, null));
+
+        assertTrue(itemSearchCache.get(ItemSearchCache.key(false, "ел", 0, 10)).isEmpty());
+    }
+
+    @Test
+    void put_whenItemChangedDuringSearch_thenPageNotCached() {
+        long generation = itemSearchCache.generation();
+        itemSearchCache.invalidate(new Item(3L, "Дрель", "Дрель", true, 1L, null));
+
+        itemSearchCache.put(ItemSearchCache.key(false, "дрель", 0, 10), List.of(1L), generation);
+
+        assertTrue(itemSearchCache.get(ItemSearchCache.key(false, "дрель", 0, 10)).isEmpty());
+    }
+
+    @Test
+    void metrics_whenCacheUsed_thenHitsMissesAndRemovalsCounted() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        itemSearchCache = new ItemSearchCache(10, Duration.ofSeconds(60), meterRegistry);
+        itemSearchCache.put(ItemSearchCache.key(false, "дрель", 0, 10), List.of(1L), 0);
+        itemSearchCache.get(ItemSearchCache.key(false, "дрель", 0, 10));
+        itemSearchCache.get(ItemSearchCache.key(false, "пила", 0, 10));
+        itemSearchCache.invalidate(new Item(3L, "Дрель", "Дрель", true, 1L, null));
+
+        assertEquals(1, meterRegistry.get("shareit.search.cache.requests").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1, meterRegistry.get("shareit.search.cache.requests").tag("result", "miss")
+                .functionCounter().count());
+        assertEquals(1, meterRegistry.get("shareit.search.cache.removals").tag("cause", "invalidated")
+                .functionCounter().count());
+        assertEquals(0, meterRegistry.get("shareit.search.cache.size").gauge().value());
+    }
+}
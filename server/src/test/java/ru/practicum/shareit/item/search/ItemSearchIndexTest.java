@@ -0,0 +1,124 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchIndexTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private ItemSearchIndex itemSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        itemSearchIndex = new ItemSearchIndex(itemRepository, "memory", 0.3, 2.0);
+        when(itemRepository.findAllAfter(anyLong(), any(Pageable.class))).thenReturn(List.of(
+                new Item(1L, "Качели", "Качели для малышей", true, 1L, null),
+                new Item(2L, "Дрель", "Аккумуляторная дрель", true, 1L, null),
+                new Item(3L, "Отвертка", "Аккумуляторная отвертка", false, 1L, null)), List.of());
+        itemSearchIndex.build();
+    }
+
+    @Test
+    void search_whenSubstringInDescription_thenAvailableItemsFoundIgnoringCase() {
+        assertTrue(itemSearchIndex.isReady());
+        assertEquals(List.of(2L), ids(itemSearchIndex.search("АККУМ", Pageable.unpaged())));
+        assertEquals(List.of(1L), ids(itemSearchIndex.search("малыш", Pageable.unpaged())));
+        assertEquals(List.of(), ids(itemSearchIndex.search("пила", Pageable.unpaged())));
+    }
+
+    @Test
+    void search_whenOtherWordForm_thenFoundByStem() {
+        itemSearchIndex.index(new Item(4L, "Ёлка", "Искусственная ёлка для дома", true, 2L, null));
+
+        assertEquals(List.of(2L), ids(itemSearchIndex.search("дрели", Pageable.unpaged())));
+        assertEquals(List.of(2L), ids(itemSearchIndex.search("аккумуляторный дрелью", Pageable.unpaged())));
+        assertEquals(List.of(4L), ids(itemSearchIndex.search("елки", Pageable.unpaged())));
+        assertEquals(List.of(), ids(itemSearchIndex.search("дрели для малышей", Pageable.unpaged())));
+    }
+
+    @Test
+    void search_whenWordInNameOfOneItemAndDescriptionOfAnother_thenNameMatchRankedFirst() {
+        itemSearchIndex.index(new Item(1L, "Набор сверл", "Сверла для дрели", true, 1L, null));
+
+        assertEquals(List.of(2L, 1L), ids(itemSearchIndex.search("дрель", Pageable.unpaged())));
+    }
+
+    @Test
+    void search_whenWordRepeatedInDescription_thenRankedHigher() {
+        itemSearchIndex.index(new Item(4L, "Пила", "Ручная пила по дереву и металлу", true, 2L, null));
+        itemSearchIndex.index(new Item(5L, "Пила", "Пила по дереву, пилы в комплекте", true, 2L, null));
+
+        assertEquals(List.of(5L, 4L), ids(itemSearchIndex.search("пила", Pageable.unpaged())));
+    }
+
+    @Test
+    void search_whenQueryShorterThanTrigram_thenAllDocumentsScanned() {
+        assertEquals(List.of(1L, 2L), ids(itemSearchIndex.search("ел", Pageable.unpaged())));
+    }
+
+    @Test
+    void search_whenPaged_thenOffsetAndLimitApplied() {
+        itemSearchIndex.index(new Item(4L, "Дрель ударная", "Ударная дрель", true, 2L, null));
+
+        assertEquals(List.of(4L), ids(itemSearchIndex.search("дрель", PageRequest.of(1, 1))));
+    }
+
+    @Test
+    void fuzzySearch_whenWordMisspelled_thenSimilarItemsFoundMostSimilarFirst() {
+        itemSearchIndex.index(new Item(4L, "Дрель ударная", "Дрель", true, 2L, null));
+
+        assertEquals(List.of(4L, 2L), ids(itemSearchIndex.fuzzySearch("дрель ударня", Pageable.unpaged())));
+        assertEquals(List.of(1L), ids(itemSearchIndex.fuzzySearch("кочели", Pageable.unpaged())));
+        assertEquals(List.of(), ids(itemSearchIndex.fuzzySearch("самокат", Pageable.unpaged())));
+    }
+
+    @Test
+    void fuzzySearch_whenItemUnavailable_thenNotFound() {
+        assertEquals(List.of(2L), ids(itemSearchIndex.fuzzySearch("акумуляторная", Pageable.unpaged())));
+    }
+
+    @Test
+    void search_whenItemFilterGiven_thenRejectedItemsSkippedBeforePaging() {
+        itemSearchIndex.index(new Item(4L, "Дрель ударная", "Ударная дрель", true, 2L, null));
+        itemSearchIndex.index(new Item(5L, "Дрель угловая", "Угловая дрель", true, 2L, null));
+
+        assertEquals(List.of(5L), ids(itemSearchIndex.search("дрель", id -> id != 2L, PageRequest.of(1, 1))));
+        assertEquals(List.of(4L), ids(itemSearchIndex.fuzzySearch("дрель", id -> id == 4L, Pageable.unpaged())));
+    }
+
+    @Test
+    void index_whenItemEdited_thenOldTextNoLongerFound() {
+        itemSearchIndex.index(new Item(1L, "Самокат", "Детский самокат", true, 1L, null));
+
+        assertEquals(List.of(), ids(itemSearchIndex.search("качели", Pageable.unpaged())));
+        assertEquals(List.of(1L), ids(itemSearchIndex.search("самокат", Pageable.unpaged())));
+
+        itemSearchIndex.index(new Item(2L, "Дрель", "Аккумуляторная дрель", false, 1L, null));
+
+        assertFalse(ids(itemSearchIndex.search("дрель", Pageable.unpaged())).contains(2L));
+    }
+
+    private List<Long> ids(List<Item> items) {
+        return items.stream().map(Item::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSuggestIndexTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+    private ItemSuggestIndex itemSuggestIndex;
+
+    @BeforeEach
+    void setUp() {
+        itemSuggestIndex = new ItemSuggestIndex(itemRepository, "memory");
+        when(itemRepository.findAllAfter(anyLong(), any(Pageable.class))).thenReturn(List.of(
+                new Item(1L, "Качалка", "Кресло-качалка", true, 1L, null),
+                new Item(2L, "Качели", "Качели для малышей", true, 1L, null),
+                new Item(3L, "качели", "Садовые качели", true, 2L, null),
+                new Item(4L, "Каяк", "Надувной каяк", false, 2L, null),
+                new Item(5L, "Дрель", "Аккумуляторная дрель", true, 1L, null)), List.of());
+        itemSuggestIndex.build();
+    }
+
+    @Test
+    void suggest_whenPrefixGiven_thenAvailableNamesMostFrequentFirst() {
+        assertTrue(itemSuggestIndex.isReady());
+        assertEquals(List.of("качели", "Качалка"), itemSuggestIndex.suggest("КА", 10));
+        assertEquals(List.of("качели"), itemSuggestIndex.suggest("ка", 1));
+        assertEquals(List.of("качели", "Дрель", "Качалка"), itemSuggestIndex.suggest("", 10));
+        assertEquals(List.of(), itemSuggestIndex.suggest("пила", 10));
+    }
+
+    @Test
+    void index_whenAvailabilityOrNameChanged_thenSuggestionsUpdated() {
+        itemSuggestIndex.index(new Item(4L, "Каяк", "Надувной каяк", true, 2L, null));
+        itemSuggestIndex.index(new Item(2L, "Качели", "Качели для малышей", false, 1L, null));
+        itemSuggestIndex.index(new Item(1L, "Кресло-качалка", "Кресло-качалка", true, 1L, null));
+
+        assertEquals(List.of("качели", "Каяк"), itemSuggestIndex.suggest("ка", 10));
+        assertEquals(List.of("Кресло-качалка"), itemSuggestIndex.suggest("кр", 10));
+    }
+
+    @Test
+    void index_whenNameNoLongerUsed_thenEmptyNodesPruned() {
+        int nodes = itemSuggestIndex.nodeCount();
+
+        itemSuggestIndex.index(new Item(5L, "Дрель ударная", "Аккумуляторная дрель", true, 1L, null));
+        itemSuggestIndex.index(new Item(5L, "Дрель", "Аккумуляторная дрель", true, 1L, null));
+        itemSuggestIndex.index(new Item(6L, "Пила", "Ручная пила", true, 1L, null));
+        itemSuggestIndex.index(new Item(6L, "Пила", "Ручная пила", false, 1L, null));
+
+        assertEquals(nodes, itemSuggestIndex.nodeCount());
+        assertEquals(List.of("Дрель"), itemSuggestIndex.suggest("др", 10));
+        assertEquals(List.of(), itemSuggestIndex.suggest("пи", 10));
+    }
+
+    @Test
+    void build_whenDatabaseEngine_thenIndexNotLoaded() {
+        clearInvocations(itemRepository);
+        ItemSuggestIndex databaseIndex = new ItemSuggestIndex(itemRepository, "database");
+
+        databaseIndex.build();
+        databaseIndex.indexAfterCommit(new Item(6L, "Пила", "Ручная пила", true, 1L, null));
+
+        assertFalse(databaseIndex.isReady());
+        assertEquals(List.of(), databaseIndex.suggest("пи", 10));
+        verify(itemRepository, never()).findAllAfter(anyLong(), any(Pageable.class));
+    }
+}
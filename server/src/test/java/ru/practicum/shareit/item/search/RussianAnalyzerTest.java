@@ -0,0 +1,32 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RussianAnalyzerTest {
+
+    @Test
+    void stem_whenWordFormsOfNoun_thenSameStem() {
+        assertEquals("дрел", RussianAnalyzer.stem("дрель"));
+        assertEquals("дрел", RussianAnalyzer.stem("дрели"));
+        assertEquals("дрел", RussianAnalyzer.stem("дрелью"));
+        assertEquals("велосипед", RussianAnalyzer.stem("велосипедов"));
+        assertEquals("качел", RussianAnalyzer.stem("качели"));
+    }
+
+    @Test
+    void stem_whenAdjectiveForms_thenSameStem() {
+        assertEquals("аккумуляторн", RussianAnalyzer.stem("аккумуляторная"));
+        assertEquals("аккумуляторн", RussianAnalyzer.stem("аккумуляторный"));
+        assertEquals("красив", RussianAnalyzer.stem("красивейший"));
+    }
+
+    @Test
+    void analyze_whenTextHasCaseYoAndStopWords_thenNormalizedStems() {
+        assertEquals(List.of("елк", "дом"), RussianAnalyzer.analyze("Ёлки для ДОМА"));
+        assertEquals(List.of(), RussianAnalyzer.analyze("и в на"));
+    }
+}
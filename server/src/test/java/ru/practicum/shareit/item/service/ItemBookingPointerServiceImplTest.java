@@ -0,0 +1,120 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingPointer;
+import ru.practicum.shareit.item.repository.ItemBookingPointerRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemBookingPointerServiceImplTest {
+
+    @Mock
+    private ItemBookingPointerRepository itemBookingPointerRepository;
+    @Mock
+    private BookingRepository bookingRepository;
+    @InjectMocks
+    private ItemBookingPointerServiceImpl itemBookingPointerService;
+
+    private Item item;
+    private Booking lastBooking;
+    private Booking nextBooking;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User(1L, "Anna", "test@test.ru");
+        item = new Item(1L, "Качели", "Качели для малышей", true, 2L, null);
+        lastBooking = new Booking(1L, LocalDateTime.now().minusDays(3), LocalDateTime.now().minusDays(2),
+                item, user, user.getId(), BookingStatus.APPROVED);
+        nextBooking = new Booking(2L, LocalDateTime.now().plusDays(2), LocalDateTime.now().plusDays(3),
+                item, user, user.getId(), BookingStatus.APPROVED);
+    }
+
+    @Test
+    void getPointers_whenPointerFresh_thenReturnedWithoutBookingsQuery() {
+        ItemBookingPointer pointer = new ItemBookingPointer(item.getId());
+        pointer.setNextBooking(nextBooking);
+        pointer.setNextStart(nextBooking.getStart());
+        when(itemBookingPointerRepository.findAllById(List.of(item.getId()))).thenReturn(List.of(pointer));
+
+        Map<Long, ItemBookingPointer> pointers = itemBookingPointerService.getPointers(List.of(item.getId()));
+
+        assertEquals(nextBooking, pointers.get(item.getId()).getNextBooking());
+        verify(bookingRepository, never()).getLastAndNextBookings(any(), any());
+    }
+
+    @Test
+    void getPointers_whenNextBookingStarted_thenPointerResolvedFromBookings() {
+        ItemBookingPointer pointer = new ItemBookingPointer(item.getId());
+        pointer.setNextBooking(lastBooking);
+        pointer.setNextStart(lastBooking.getStart());
+        when(itemBookingPointerRepository.findAllById(List.of(item.getId()))).thenReturn(List.of(pointer));
+        when(bookingRepository.getLastAndNextBookings(eq(List.of(item.getId())), any()))
+                .thenReturn(List.of(lastBooking, nextBooking));
+
+        Map<Long, ItemBookingPointer> pointers = itemBookingPointerService.getPointers(List.of(item.getId()));
+
+        assertEquals(lastBooking, pointers.get(item.getId()).getLastBooking());
+        assertEquals(nextBooking, pointers.get(item.getId()).getNextBooking());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void refresh_whenItemHasNoApprovedBookings_thenEmptyPointerSaved() {
+        when(bookingRepository.getLastAndNextBookings(eq(List.of(item.getId(), 7L)), any()))
+                .thenReturn(List.of(lastBooking));
+
+        itemBookingPointerService.refresh(List.of(item.getId(), 7L));
+
+        ArgumentCaptor<List<ItemBookingPointer>> captor = ArgumentCaptor.forClass(List.class);
+        verify(itemBookingPointerRepository).saveAll(captor.capture());
+        List<ItemBookingPointer> saved = captor.getValue();
+        assertEquals(lastBooking, saved.get(0).getLastBooking());
+        assertNull(saved.get(0).getNextBooking());
+        assertEquals(7L, saved.get(1).getItemId());
+        assertNull(saved.get(1).getLastBooking());
+    }
+
+    @Test
+    void sweep_whenNextBookingsStarted_thenPointersRefreshed() {
+        when(itemBookingPointerRepository.findItemIdsWithNextStartBefore(any())).thenReturn(List.of(item.getId()));
+        when(bookingRepository.getLastAndNextBookings(eq(List.of(item.getId())), any()))
+                .thenReturn(List.of(lastBooking));
+
+        itemBookingPointerService.sweep();
+
+        verify(itemBookingPointerRepository).saveAll(any());
+    }
+
+    @Test
+    void rebuild_whenNoApprovedBookings_thenNothingSaved() {
+        when(bookingRepository.findItemIdsByStatus(BookingStatus.APPROVED)).thenReturn(List.of());
+
+        itemBookingPointerService.rebuild();
+
+        verify(itemBookingPointerRepository, never()).saveAll(any());
+        assertTrue(itemBookingPointerService.getPointers(List.of()).isEmpty());
+    }
+}
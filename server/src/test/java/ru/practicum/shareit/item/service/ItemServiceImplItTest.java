@@ -1,6 +1,8 @@
 package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,21 +10,35 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.PageRequestUtil;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.model.UserDto;
+import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 
 @Transactional
 @SpringBootTest(
-        properties = "db.name=test",
+        properties = {"db.name=test", "shareit.cache.statistics=true"},
         webEnvironment = SpringBootTest.WebEnvironment.NONE)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
@@ -31,6 +47,18 @@ class ItemServiceImplItTest {
     private final ItemService itemService;
     @Autowired
     private UserService userService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemBookingPointerService itemBookingPointerService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private EntityManager entityManager;
 
     private UserDto userDto;
     private ItemDto itemDto;
@@ -119,7 +147,7 @@ class ItemServiceImplItTest {
         userService.createUser(userDto);
         itemService.addItem(userDto.getId(), itemDto);
 
-        List<ItemDto> itemDtoTestList = itemService.searchForItems(userDto.getId(), "Качели", PageRequest.of(0, 20));
+        List<ItemDto> itemDtoTestList = itemService.searchForItems(userDto.getId(), "Качели", null, null, PageRequest.of(0, 20));
 
         assertThat(itemDtoTestList.get(0).getId(), equalTo(itemDto.getId()));
         assertThat(itemDtoTestList.get(0).getName(), equalTo(itemDto.getName()));
@@ -130,4 +158,111 @@ class ItemServiceImplItTest {
         assertThat(itemDtoTestList.get(0).getLastBooking(), equalTo(itemDto.getLastBooking()));
         assertThat(itemDtoTestList.get(0).getNextBooking(), equalTo(itemDto.getNextBooking()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void searchForItems_whenManyMatches_thenAtMostPageSizePlusOneRowsFetched() {
+        User owner = userRepository.save(new User(null, "Boris", "boris@test.ru"));
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            items.add(new Item(null, "Качели " + i, "Качели для малышей", true, owner.getId(), null));
+        }
+        itemRepository.saveAll(items);
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<ItemDto> page = itemService.searchForItems(owner.getId(), "Качели", null, null, PageRequestUtil.createPageRequest(10, 5));
+
+        assertThat(page.size(), equalTo(5));
+        assertThat(statistics.getEntityStatistics(Item.class.getName()).getLoadCount(), lessThanOrEqualTo(6L));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(1L));
+    }
+
+    @Test
+    void getItemsByUser_whenApprovedBookingsExist_thenLastAndNextBookingsResolvedPerItem() {
+        userService.createUser(userDto);
+        userService.createUser(new UserDto(2L, "Kristina", "testKristina@test.ru"));
+        itemService.addItem(userDto.getId(), itemDto);
+        itemService.addItem(userDto.getId(), itemDto.toBuilder().id(2L).name("Самокат").build());
+        Item swing = itemRepository.findById(1L).orElseThrow();
+        Item scooter = itemRepository.findById(2L).orElseThrow();
+        User booker = userRepository.findById(2L).orElseThrow();
+        LocalDateTime now = LocalDateTime.now();
+        Booking oldest = saveBooking(swing, booker, now.minusDays(10), BookingStatus.APPROVED);
+        Booking last = saveBooking(swing, booker, now.minusDays(5), BookingStatus.APPROVED);
+        saveBooking(swing, booker, now.plusDays(1), BookingStatus.REJECTED);
+        Booking next = saveBooking(swing, booker, now.plusDays(3), BookingStatus.APPROVED);
+        saveBooking(swing, booker, now.plusDays(7), BookingStatus.APPROVED);
+        Booking scooterNext = saveBooking(scooter, booker, now.plusDays(2), BookingStatus.APPROVED);
+        itemBookingPointerService.rebuild();
+
+        List<ItemDto> items = itemService.getItemsByUser(userDto.getId(), PageRequest.of(0, 20));
+
+        assertThat(items.size(), equalTo(2));
+        assertThat(items.get(0).getLastBooking().getId(), equalTo(last.getId()));
+        assertThat(items.get(0).getNextBooking().getId(), equalTo(next.getId()));
+        assertThat(items.get(1).getLastBooking(), nullValue());
+        assertThat(items.get(1).getNextBooking().getId(), equalTo(scooterNext.getId()));
+        assertThat(oldest.getId(), notNullValue());
+    }
+
+    @Test
+    void getItem_whenBookingApproved_thenNextBookingPointerUpdated() {
+        userService.createUser(userDto);
+        userService.createUser(new UserDto(2L, "Kristina", "testKristina@test.ru"));
+        itemService.addItem(userDto.getId(), itemDto);
+        BookingDto bookingDto = BookingDto.builder()
+                .itemId(1L)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build();
+        BookingDto waiting = bookingService.addBooking(2L, bookingDto);
+
+        assertThat(itemService.getItem(userDto.getId(), 1L).getNextBooking(), nullValue());
+
+        bookingService.changeStatus(userDto.getId(), waiting.getId(), true);
+
+        ItemDto itemDtoTest = itemService.getItem(userDto.getId(), 1L);
+        assertThat(itemDtoTest.getNextBooking().getId(), equalTo(waiting.getId()));
+        assertThat(itemDtoTest.getLastBooking(), nullValue());
+        assertThat(itemService.getItem(2L, 1L).getNextBooking(), nullValue());
+    }
+
+    @Test
+    void getItemRevision_whenItemEditedOrBookingApproved_thenRevisionChanged() {
+        userService.createUser(userDto);
+        userService.createUser(new UserDto(2L, "Kristina", "testKristina@test.ru"));
+        itemService.addItem(userDto.getId(), itemDto);
+        String ownerRevision = itemService.getItemRevision(userDto.getId(), 1L).orElseThrow();
+        String otherRevision = itemService.getItemRevision(2L, 1L).orElseThrow();
+
+        assertThat(ownerRevision, not(equalTo(otherRevision)));
+
+        itemService.editItem(userDto.getId(), 1L, new ItemDto(null, "Садовые качели", null, null, null, null, null,
+                new ArrayList<>()));
+        String editedRevision = itemService.getItemRevision(userDto.getId(), 1L).orElseThrow();
+
+        assertThat(editedRevision, not(equalTo(ownerRevision)));
+        assertThat(itemService.getItemRevision(2L, 1L).orElseThrow(), not(equalTo(otherRevision)));
+
+        BookingDto waiting = bookingService.addBooking(2L, BookingDto.builder()
+                .itemId(1L)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build());
+        bookingService.changeStatus(userDto.getId(), waiting.getId(), true);
+
+        assertThat(itemService.getItemRevision(userDto.getId(), 1L).orElseThrow(), not(equalTo(editedRevision)));
+    }
+
+    private Booking saveBooking(Item item, User booker, LocalDateTime start, BookingStatus status) {
+        return bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(start.plusDays(1))
+                .status(status)
+                .build());
+    }
+}
@@ -8,28 +8,41 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import ru.practicum.shareit.booking.enums.BookingStatus;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
 import ru.practicum.shareit.exceptions.BadRequestException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingPointer;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.ItemSuggestIndex;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.KnownUsers;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -43,6 +56,20 @@ class ItemServiceImplTest {
     private BookingRepository bookingRepository;
     @Mock
     private CommentRepository commentRepository;
+    @Mock
+    private ItemBookingPointerService itemBookingPointerService;
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+    @Mock
+    private ItemSuggestIndex itemSuggestIndex;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Mock
+    private ItemSearchCache itemSearchCache;
+    @Mock
+    private ItemViewCache itemViewCache;
+    @Mock
+    private KnownUsers knownUsers;
     @InjectMocks
     private ItemServiceImpl itemService;
 
@@ -101,6 +128,8 @@ class ItemServiceImplTest {
 
     @Test
     void addItem_whenUserNotFound_thenThrownNotFoundException() {
+        doThrow(new NotFoundException("Пользователь с id = " + user.getId() + " не найден"))
+                .when(knownUsers).requireExists(anyLong());
         NotFoundException thrown = Assertions.assertThrows(NotFoundException.class, () -> {
             itemService.addItem(user.getId(), itemDto);
         });
@@ -111,7 +140,6 @@ class ItemServiceImplTest {
     @Test
     void addItem_whenItemIsValidated_thenReturnItemDto() {
         when(userRepository.save(any())).thenReturn(user);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
         when(itemRepository.save(any())).thenReturn(item);
 
         userRepository.save(user);
@@ -128,6 +156,8 @@ class ItemServiceImplTest {
 
     @Test
     void editItem_whenUserNotFound_thenThrowNotFoundException() {
+        doThrow(new NotFoundException("Пользователь с id = " + user.getId() + " не найден"))
+                .when(knownUsers).requireExists(anyLong());
         NotFoundException thrown = Assertions.assertThrows(NotFoundException.class, () -> {
             itemService.editItem(user.getId(), item.getId(), itemDto);
         });
@@ -138,7 +168,6 @@ class ItemServiceImplTest {
     @Test
     void editItem_whenItemNotFound_thenThrowNotFoundException() {
         when(userRepository.save(any())).thenReturn(user);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
 
         userRepository.save(user);
         NotFoundException thrown = Assertions.assertThrows(NotFoundException.class, () -> {
@@ -151,7 +180,6 @@ class ItemServiceImplTest {
     @Test
     void editItem_whenItemIsValidated_thenReturnItemDto() {
         when(userRepository.save(any())).thenReturn(user);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
         when(itemRepository.save(any())).thenReturn(item);
         when(itemRepository.findById(anyLong())).thenReturn(Optional.ofNullable(item));
 
@@ -169,10 +197,13 @@ class ItemServiceImplTest {
         assertEquals(1L, itemDtoTest.getRequestId());
         assertNull(itemDtoTest.getLastBooking());
         assertNull(itemDtoTest.getNextBooking());
+        verify(itemSearchCache, times(1)).invalidateAfterCommit(any(Item.class), eq(item));
     }
 
     @Test
     void getItemsByUser_whenUserNotFound_thenThrowNotFoundException() {
+        doThrow(new NotFoundException("Пользователь с id = " + user.getId() + " не найден"))
+                .when(knownUsers).requireExists(anyLong());
         NotFoundException thrown = Assertions.assertThrows(NotFoundException.class, () -> {
             itemService.getItemsByUser(user.getId(), PageRequest.of(0, 20));
         });
@@ -183,7 +214,6 @@ class ItemServiceImplTest {
     @Test
     void getItemsByUser_whenPageRequestNotNull_thenReturnListOfItemDto() {
         when(userRepository.save(any())).thenReturn(user);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
         when(itemRepository.save(any())).thenReturn(item);
         when(itemRepository.findItemsByOwnerOrderById(anyLong(), any(PageRequest.class))).thenReturn(List.of(item));
 
@@ -203,7 +233,6 @@ class ItemServiceImplTest {
     @Test
     void getItemsByUser_whenPageRequestNull_thenReturnListOfItemDto() {
         when(userRepository.save(any())).thenReturn(user);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
         when(itemRepository.save(any())).thenReturn(item);
         when(itemRepository.findItemsByOwnerOrderById(anyLong())).thenReturn(List.of(item));
 
@@ -222,19 +251,15 @@ class ItemServiceImplTest {
 
     @Test
     void setBookings_whenBookingsExist_thenReturnedItemDtoWithBookings() {
-        when(bookingRepository.save(any())).thenReturn(booking);
-        when(bookingRepository.getLastBooking(anyLong())).thenReturn(Optional.ofNullable(booking));
-        when(bookingRepository.getNextBooking(anyLong())).thenReturn(Optional.ofNullable(booking));
-
-        Booking lastBooking = booking;
-        Booking nextBooking = booking;
-
-        lastBooking.setStart(LocalDateTime.now().minusDays(2));
-        lastBooking.setEnd(LocalDateTime.now().minusDays(1));
-        nextBooking.setStart(LocalDateTime.now().plusDays(250));
-        nextBooking.setEnd(LocalDateTime.now().plusDays(255));
-        bookingRepository.save(lastBooking);
-        bookingRepository.save(nextBooking);
+        Booking lastBooking = booking.toBuilder().id(2L)
+                .start(LocalDateTime.now().minusDays(2)).end(LocalDateTime.now().minusDays(1)).build();
+        Booking nextBooking = booking.toBuilder().id(3L)
+                .start(LocalDateTime.now().plusDays(250)).end(LocalDateTime.now().plusDays(255)).build();
+        ItemBookingPointer pointer = new ItemBookingPointer(item.getId());
+        pointer.setLastBooking(lastBooking);
+        pointer.setNextBooking(nextBooking);
+        pointer.setNextStart(nextBooking.getStart());
+        when(itemBookingPointerService.getPointers(List.of(item.getId()))).thenReturn(Map.of(item.getId(), pointer));
         user.setId(2L);
 
         ItemDto itemDtoTest = itemService.setBookings(user.getId(), item);
@@ -243,8 +268,27 @@ class ItemServiceImplTest {
         assertEquals(nextBooking, itemDtoTest.getNextBooking());
     }
 
+    @Test
+    void setBookings_whenItemsOwnedByUser_thenPointersLoadedInOneCall() {
+        Item otherItem = item.toBuilder().id(5L).build();
+        Item foreignItem = item.toBuilder().id(6L).owner(3L).build();
+        ItemBookingPointer pointer = new ItemBookingPointer(otherItem.getId());
+        pointer.setNextBooking(booking);
+        when(itemBookingPointerService.getPointers(List.of(1L, 5L))).thenReturn(Map.of(5L, pointer));
+
+        List<ItemDto> itemDtos = itemService.setBookings(2L, List.of(item, otherItem, foreignItem));
+
+        assertNull(itemDtos.get(0).getLastBooking());
+        assertNull(itemDtos.get(0).getNextBooking());
+        assertEquals(booking, itemDtos.get(1).getNextBooking());
+        assertNull(itemDtos.get(2).getNextBooking());
+        verify(itemBookingPointerService, times(1)).getPointers(any());
+    }
+
     @Test
     void getItem_whenUserNotFound_thenThrowNotFoundException() {
+        doThrow(new NotFoundException("Пользователь с id = " + user.getId() + " не найден"))
+                .when(knownUsers).requireExists(anyLong());
         NotFoundException thrown = Assertions.assertThrows(NotFoundException.class, () -> {
             itemService.getItem(user.getId(), item.getId());
         });
@@ -254,7 +298,6 @@ class ItemServiceImplTest {
 
     @Test
     void getItem_whenItemNotFound_thenThrowNotFoundException() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
 
         NotFoundException thrown = Assertions.assertThrows(NotFoundException.class, () -> {
             itemService.getItem(user.getId(), item.getId());
@@ -265,7 +308,6 @@ class ItemServiceImplTest {
 
     @Test
     void getItem_whenItemIsValidated_thenReturnItemDto() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
         when(itemRepository.findById(anyLong())).thenReturn(Optional.ofNullable(item));
 
         ItemDto itemDtoTest = itemService.getItem(user.getId(), item.getId());
@@ -280,15 +322,113 @@ class ItemServiceImplTest {
     }
 
     @Test
-    void searchForItems_whenPageRequestIsNull_thenReturnListOfItemDto() {
-        when(itemRepository.search(anyString())).thenReturn(List.of(item));
+    void searchForItems_whenPageRequestIsNull_thenFirstPageOfMaxSizeRequested() {
+        PageRequest firstPage = PageRequest.of(0, ItemServiceImpl.MAX_SEARCH_PAGE_SIZE);
+        when(itemRepository.search("Качели", null, null, firstPage)).thenReturn(new SliceImpl<>(List.of(item)));
 
-        List<ItemDto> itemDtos = itemService.searchForItems(user.getId(), "Качели", PageRequest.of(0, 20));
+        List<ItemDto> itemDtos = itemService.searchForItems(user.getId(), "Качели", null, null, null);
 
         assertEquals(1, itemDtos.size());
         assertEquals(1L, itemDtos.get(0).getId());
     }
 
+    @Test
+    void searchForItems_whenIndexReady_thenRepositoryNotQueried() {
+        PageRequest pageRequest = PageRequest.of(0, 20);
+        when(itemSearchIndex.isReady()).thenReturn(true);
+        when(itemSearchIndex.search(eq("Качели"), any(), eq(pageRequest))).thenReturn(List.of(item));
+
+        List<ItemDto> itemDtos = itemService.searchForItems(user.getId(), "Качели", null, null, pageRequest);
+
+        assertEquals(1, itemDtos.size());
+        verify(itemRepository, times(0)).search(anyString(), any(), any(), any());
+    }
+
+    @Test
+    void searchForItems_whenPageCached_thenItemsLoadedByIdInCachedOrder() {
+        PageRequest pageRequest = PageRequest.of(0, 20);
+        Item other = new Item(2L, "Качели садовые", "Садовые качели", true, user.getId(), null);
+        when(itemSearchCache.get(ItemSearchCache.key(false, " КАЧЕЛИ", 0, 20))).thenReturn(Optional.of(List.of(2L, 1L)));
+        when(itemRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(item, other));
+
+        List<ItemDto> itemDtos = itemService.searchForItems(user.getId(), " КАЧЕЛИ", null, null, pageRequest);
+
+        assertEquals(List.of(2L, 1L), itemDtos.stream().map(ItemDto::getId).collect(Collectors.toList()));
+        verify(itemRepository, times(0)).search(anyString(), any(), any(), any());
+        verify(itemSearchIndex, times(0)).search(anyString(), any(), any());
+    }
+
+    @Test
+    void searchForItems_whenPeriodGiven_thenCacheNotUsed() {
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        when(itemRepository.search("Качели", start, start.plusDays(1), pageRequest))
+                .thenReturn(new SliceImpl<>(List.of(item)));
+
+        itemService.searchForItems(user.getId(), "Качели", start, start.plusDays(1), pageRequest);
+
+        verify(itemSearchCache, times(0)).get(any());
+        verify(itemSearchCache, times(0)).put(any(), any(), anyLong());
+    }
+
+    @Test
+    void searchForItems_whenPageSizeAboveMax_thenThrownBadRequestException() {
+        PageRequest pageRequest = PageRequest.of(0, ItemServiceImpl.MAX_SEARCH_PAGE_SIZE + 1);
+
+        BadRequestException thrown = Assertions.assertThrows(BadRequestException.class, () ->
+                itemService.searchForItems(user.getId(), "Качели", null, null, pageRequest));
+
+        assertEquals("Количество элементов не может быть больше 100", thrown.getMessage());
+    }
+
+    @Test
+    void searchForItems_whenOnlyStartGiven_thenThrownBadRequestException() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        BadRequestException thrown = Assertions.assertThrows(BadRequestException.class, () ->
+                itemService.searchForItems(user.getId(), "Качели", start, null, PageRequest.of(0, 10)));
+
+        assertEquals("Должны быть заполнены дата начала и дата окончания периода", thrown.getMessage());
+    }
+
+    @Test
+    void searchForItems_whenIndexReadyAndPeriodGiven_thenBookedItemsFilteredByIntervalIndex() {
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = start.plusDays(2);
+        when(itemSearchIndex.isReady()).thenReturn(true);
+        when(itemSearchIndex.search(eq("Качели"), any(), eq(pageRequest))).thenAnswer(invocation -> {
+            LongPredicate filter = invocation.getArgument(1);
+            return filter.test(item.getId()) ? List.of(item) : List.of();
+        });
+        when(bookingIntervalIndex.overlaps(item.getId(), start, end)).thenReturn(true);
+
+        List<ItemDto> itemDtos = itemService.searchForItems(user.getId(), "Качели", start, end, pageRequest);
+
+        assertEquals(0, itemDtos.size());
+        verify(bookingRepository, times(0)).findAll();
+    }
+
+    @Test
+    void suggest_whenIndexNotReady_thenEscapedPrefixQueriedInRepository() {
+        when(itemRepository.findNamesByPrefix("100\\%", PageRequest.of(0, 10))).thenReturn(List.of("100% хлопок"));
+
+        List<String> names = itemService.suggest(user.getId(), " 100% ", 50);
+
+        assertEquals(List.of("100% хлопок"), names);
+    }
+
+    @Test
+    void suggest_whenIndexReady_thenAnsweredFromIndex() {
+        when(itemSuggestIndex.isReady()).thenReturn(true);
+        when(itemSuggestIndex.suggest("кач", 5)).thenReturn(List.of("Качели"));
+
+        List<String> names = itemService.suggest(user.getId(), "кач", 5);
+
+        assertEquals(List.of("Качели"), names);
+        verify(itemRepository, times(0)).findNamesByPrefix(anyString(), any());
+    }
+
     @Test
     void addComment_whenCommentTextBlank_thenThrowBadRequestException() {
         commentDto.setText("");
@@ -0,0 +1,145 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemViewCacheTest {
+
+    private static final Long OWNER = 1L;
+    private static final Long OTHER = 2L;
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    private MutableClock clock;
+    private ItemViewCache itemViewCache;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOW.toInstant(ZoneOffset.UTC));
+        itemViewCache = new ItemViewCache(2, Duration.ofMinutes(5), clock);
+    }
+
+    @Test
+    void get_whenOtherViewerRole_thenSeparateView() {
+        ItemDto ownerView = itemDto(1L, NOW.plusDays(1));
+        ItemDto otherView = itemDto(1L, null);
+        itemViewCache.put(OWNER, OWNER, ownerView, 0);
+
+        assertEquals(Optional.of(ownerView), itemViewCache.get(1L, OWNER));
+        assertTrue(itemViewCache.get(1L, OTHER).isEmpty());
+
+        itemViewCache.put(OWNER, OTHER, otherView, 0);
+
+        assertEquals(Optional.of(otherView), itemViewCache.get(1L, 3L));
+    }
+
+    @Test
+    void get_whenCachedViewChangedByCaller_thenCacheUnchanged() {
+        itemViewCache.put(OWNER, OTHER, itemDto(1L, null), 0);
+
+        itemViewCache.get(1L, OTHER).orElseThrow().getComments().clear();
+
+        assertEquals(1, itemViewCache.get(1L, OTHER).orElseThrow().getComments().size());
+    }
+
+    @Test
+    void get_whenNextBookingStarted_thenViewExpired() {
+        itemViewCache.put(OWNER, OWNER, itemDto(1L, NOW.plusMinutes(1)), 0);
+        itemViewCache.put(OWNER, OTHER, itemDto(1L, null), 0);
+        clock.advance(Duration.ofMinutes(1));
+
+        assertTrue(itemViewCache.get(1L, OWNER).isEmpty());
+        assertTrue(itemViewCache.get(1L, OTHER).isPresent());
+    }
+
+    @Test
+    void get_whenTtlPassed_thenViewExpired() {
+        itemViewCache.put(OWNER, OWNER, itemDto(1L, NOW.plusDays(1)), 0);
+        clock.advance(Duration.ofMinutes(5));
+
+        assertTrue(itemViewCache.get(1L, OWNER).isEmpty());
+    }
+
+    @Test
+    void invalidate_whenItemChanged_thenOnlyItsViewsDropped() {
+        itemViewCache.put(OWNER, OWNER, itemDto(1L, null), 0);
+        itemViewCache.put(OWNER, OWNER, itemDto(2L, null), 0);
+
+        itemViewCache.invalidate(List.of(1L));
+
+        assertTrue(itemViewCache.get(1L, OWNER).isEmpty());
+        assertTrue(itemViewCache.get(2L, OWNER).isPresent());
+    }
+
+    @Test
+    void put_whenGenerationOutdated_thenNotCached() {
+        long generation = itemViewCache.generation();
+        itemViewCache.invalidate(List.of(1L));
+
+        itemViewCache.put(OWNER, OWNER, itemDto(1L, null), generation);
+
+        assertTrue(itemViewCache.get(1L, OWNER).isEmpty());
+    }
+
+    @Test
+    void put_whenMaxEntriesExceeded_thenLeastRecentlyUsedEvicted() {
+        itemViewCache.put(OWNER, OWNER, itemDto(1L, null), 0);
+        itemViewCache.put(OWNER, OWNER, itemDto(2L, null), 0);
+        itemViewCache.get(1L, OWNER);
+        itemViewCache.put(OWNER, OWNER, itemDto(3L, null), 0);
+
+        assertTrue(itemViewCache.get(2L, OWNER).isEmpty());
+        assertTrue(itemViewCache.get(1L, OWNER).isPresent());
+        assertEquals(2, itemViewCache.size());
+    }
+
+    private static ItemDto itemDto(Long id, LocalDateTime nextStart) {
+        Booking next = nextStart == null ? null : new Booking(10L, nextStart, nextStart.plusDays(1), null, null,
+                null, null);
+        List<CommentDto> comments = new ArrayList<>(List.of(new CommentDto(1L, "Отличные качели", id, "Kristina",
+                NOW.minusDays(1))));
+        return new ItemDto(id, "Качели", "Качели для малышей", true, null, null, next, comments);
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -8,6 +8,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.model.ItemRequestDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.model.UserDto;
@@ -31,6 +33,8 @@ class ItemRequestServiceImplItTest {
     private final ItemRequestService itemRequestService;
     @Autowired
     private UserService userService;
+    @Autowired
+    private ItemService itemService;
     private User user;
     private User userKris;
     private UserDto userDtoKris;
@@ -94,4 +98,16 @@ class ItemRequestServiceImplItTest {
         assertThat(itemRequestDtoTest.getDescription(), equalTo(itemRequestDto.getDescription()));
         assertThat(itemRequestDtoTest.getRequestor(), equalTo(itemRequestDto.getRequestor()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getItemRequestRevision_whenItemAddedForRequest_thenRevisionChanged() {
+        userService.createUser(userDto);
+        itemRequestService.addItemRequest(user.getId(), itemRequestDto);
+        String revision = itemRequestService.getItemRequestRevision(user.getId(), 1L).orElseThrow();
+
+        itemService.addItem(user.getId(), new ItemDto(null, "Качели", "Качели для малышей", true, 1L, null, null,
+                new ArrayList<>()));
+
+        assertThat(itemRequestService.getItemRequestRevision(user.getId(), 1L).orElseThrow(), not(equalTo(revision)));
+    }
+}
@@ -18,6 +18,7 @@ import ru.practicum.shareit.request.model.ItemRequestDto;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.KnownUsers;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -27,6 +28,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,6 +42,8 @@ class ItemRequestServiceImplTest {
     ItemRepository itemRepository;
     @Mock
     Pageable pageable;
+    @Mock
+    private KnownUsers knownUsers;
     @InjectMocks
     ItemRequestServiceImpl itemRequestService;
 
@@ -92,6 +96,8 @@ class ItemRequestServiceImplTest {
 
     @Test
     void getOwnItemRequests_whenUserNotFound_thenThrowNotFoundException() {
+        doThrow(new NotFoundException("Пользователь с id = " + user.getId() + " не найден"))
+                .when(knownUsers).requireExists(anyLong());
         NotFoundException thrown = Assertions.assertThrows(NotFoundException.class, () -> {
             itemRequestService.getOwnItemRequests(user.getId());
         });
@@ -100,7 +106,6 @@ class ItemRequestServiceImplTest {
 
     @Test
     void getOwnItemRequests_whenUserExists_thenReturnedListOfItemDto() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
 
         when(itemRequestRepository.getAllByRequestorIdOrderByCreatedDesc(anyLong())).thenReturn(Optional.of(List.of(itemRequest)));
 
@@ -115,6 +120,8 @@ class ItemRequestServiceImplTest {
 
     @Test
     void getAllWithPagination_whenUserNotFound_thenThrowNotFoundException() {
+        doThrow(new NotFoundException("Пользователь с id = " + user.getId() + " не найден"))
+                .when(knownUsers).requireExists(anyLong());
         NotFoundException thrown = Assertions.assertThrows(NotFoundException.class, () -> {
             itemRequestService.getAllWithPagination(user.getId(), null);
         });
@@ -123,6 +130,8 @@ class ItemRequestServiceImplTest {
 
     @Test
     void getItemRequest_whenUserNotFound_thenThrowNotFoundException() {
+        doThrow(new NotFoundException("Пользователь с id = " + user.getId() + " не найден"))
+                .when(knownUsers).requireExists(anyLong());
         NotFoundException thrown = Assertions.assertThrows(NotFoundException.class, () -> {
             itemRequestService.getItemRequest(user.getId(), itemRequest.getId());
         });
@@ -131,7 +140,6 @@ class ItemRequestServiceImplTest {
 
     @Test
     void getItemRequest_whenItemRequestNotFound_thenThrowNotFoundException() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
 
         NotFoundException thrown = Assertions.assertThrows(NotFoundException.class, () -> {
             itemRequestService.getItemRequest(user.getId(), itemRequest.getId());
@@ -142,7 +150,6 @@ class ItemRequestServiceImplTest {
     @Test
     void getItemRequest_whenItemRequestExistsWithItems_thenReturnedItemRequestDtoWithItems() {
         when(itemRequestRepository.save(any())).thenReturn(itemRequest);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
         when(itemRequestRepository.findById(anyLong())).thenReturn(Optional.ofNullable(itemRequest));
         when(itemRepository.getItemByRequestId(anyLong())).thenReturn(Optional.of(item));
 
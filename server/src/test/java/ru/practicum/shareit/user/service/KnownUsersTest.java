@@ -0,0 +1,128 @@
+package ru.practicum.shareit.user.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class KnownUsersTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private KnownUsers knownUsers;
+    private User user;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        knownUsers = new KnownUsers(userRepository, 1000, 2, Duration.ofSeconds(60), () -> now);
+        user = new User(1L, "Anna", "test@test.ru");
+        when(userRepository.findIdsAfter(0L, PageRequest.of(0, 1000))).thenReturn(List.of(1L, 2L, 3L));
+        when(userRepository.findIdsAfter(3L, PageRequest.of(0, 1000))).thenReturn(List.of());
+        knownUsers.load();
+    }
+
+    @Test
+    void exists_whenIdNotInFilterAndNotInDatabase_thenFalse() {
+        assertFalse(knownUsers.exists(100L));
+
+        verify(userRepository, never()).findById(anyLong());
+        verify(userRepository, times(1)).existsById(100L);
+    }
+
+    @Test
+    void exists_whenInsertedBehindListener_thenFoundAndRememberedWithoutFurtherQueries() {
+        when(userRepository.existsById(100L)).thenReturn(true);
+
+        assertTrue(knownUsers.exists(100L));
+        assertTrue(knownUsers.exists(100L));
+
+        verify(userRepository, times(1)).existsById(100L);
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void exists_whenConfirmedOnce_thenRepeatedChecksWithoutQuery() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        assertTrue(knownUsers.exists(1L));
+        assertTrue(knownUsers.exists(1L));
+
+        verify(userRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void exists_whenConfirmedCacheFull_thenLeastRecentlyUsedCheckedAgain() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+
+        knownUsers.exists(1L);
+        knownUsers.exists(2L);
+        knownUsers.exists(1L);
+        knownUsers.exists(3L);
+        knownUsers.exists(2L);
+
+        verify(userRepository, times(1)).findById(1L);
+        verify(userRepository, times(2)).findById(2L);
+    }
+
+    @Test
+    void exists_whenConfirmationExpired_thenCheckedInRepositoryAgain() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user), Optional.empty());
+        knownUsers.exists(1L);
+        now += Duration.ofSeconds(59).toNanos();
+
+        assertTrue(knownUsers.exists(1L));
+
+        now += Duration.ofSeconds(1).toNanos();
+
+        assertFalse(knownUsers.exists(1L));
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void exists_whenCreatedAfterLoad_thenCheckedInRepository() {
+        knownUsers.created(4L);
+        when(userRepository.findById(4L)).thenReturn(Optional.of(user));
+
+        assertTrue(knownUsers.exists(4L));
+    }
+
+    @Test
+    void exists_whenDeleted_thenCheckedInRepositoryAgain() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user), Optional.empty());
+        knownUsers.exists(1L);
+
+        knownUsers.deleted(1L);
+
+        assertFalse(knownUsers.exists(1L));
+    }
+
+    @Test
+    void requireExists_whenUserNotFound_thenThrowNotFoundException() {
+        NotFoundException thrown = Assertions.assertThrows(NotFoundException.class, () ->
+                knownUsers.requireExists(100L));
+
+        assertEquals("Пользователь с id = 100 не найден", thrown.getMessage());
+    }
+}
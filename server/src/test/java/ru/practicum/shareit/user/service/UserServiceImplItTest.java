@@ -30,6 +30,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 class UserServiceImplItTest {
 
     private final UserService userService;
+    private final KnownUsers knownUsers;
     private final EntityManager em;
     private UserDto userDto;
     private UserDto userDtoKris;
@@ -101,4 +102,14 @@ class UserServiceImplItTest {
 
         assertThrows(NotFoundException.class, () -> userService.getUser(userDto.getId()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void requireExists_whenUserInsertedBypassingJpa_thenFound() {
+        em.createNativeQuery("insert into users (id, name, email) values (100, 'Boris', 'boris@test.ru')")
+                .executeUpdate();
+
+        knownUsers.requireExists(100L);
+
+        assertThrows(NotFoundException.class, () -> knownUsers.requireExists(101L));
+    }
+}